@@ -0,0 +1,94 @@
+package com.example.paint.bench;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.json.JsonCodec;
+import com.example.paint.Fixtures;
+import com.example.paint.canvas.Canvas;
+import com.example.paint.canvas.CanvasColumnar;
+import com.example.paint.canvas.CanvasConcurrent;
+import com.example.paint.canvas.CanvasImplementation;
+import com.example.paint.canvas.CanvasIndexed;
+import com.example.paint.shapes.Shape;
+import com.example.paint.storage.Storage;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CanvasBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    private int size;
+
+    @Param({ "list", "indexed", "columnar", "concurrent" })
+    private String canvasType;
+
+    private Canvas canvas;
+    private UUID[] ids;
+    private Random random;
+    private final Fixtures.NullWriter writer = new Fixtures.NullWriter();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Storage storage = Fixtures.noStorage();
+        canvas = switch (canvasType) {
+            case "list" -> new CanvasImplementation(storage, writer);
+            case "indexed" -> new CanvasIndexed(storage, writer);
+            case "concurrent" -> new CanvasConcurrent(storage, writer);
+            case "columnar" -> new CanvasColumnar(storage, writer, JsonCodec.get().getMapper());
+            default -> throw new IllegalArgumentException(canvasType);
+        };
+        List<Shape> shapes = Drawings.generate(size, 42);
+        ids = new UUID[size];
+        for (int i = 0; i < size; i++) {
+            canvas.addShape(shapes.get(i));
+            ids[i] = shapes.get(i).getId();
+        }
+        random = new Random(7);
+    }
+
+    //Alta y baja de la misma figura para que el tamaño del canvas no cambie entre iteraciones
+    @Benchmark
+    public void addRemove() {
+        Shape shape = Drawings.shape(random, random.nextInt(2));
+        canvas.addShape(shape);
+        canvas.removeShape(shape.getId());
+    }
+
+    @Benchmark
+    public void move() {
+        canvas.moveShape(ids[random.nextInt(size)], random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long list() {
+        canvas.listShapes();
+        return writer.chars();
+    }
+
+    @Benchmark
+    public void findAt(Blackhole blackhole) {
+        blackhole.consume(canvas.findShapesAt(random.nextDouble() * Drawings.SIZE, random.nextDouble() * Drawings.SIZE));
+    }
+}
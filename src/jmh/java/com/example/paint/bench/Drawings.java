@@ -0,0 +1,36 @@
+package com.example.paint.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import com.example.paint.shapes.Circle;
+import com.example.paint.shapes.Rectangle;
+import com.example.paint.shapes.Shape;
+
+//Dibujos generados con la misma mezcla que paint.json: circulos y rectangulos alternos
+final class Drawings {
+    static final double SIZE = 10_000;
+
+    private Drawings() {
+    }
+
+    static List<Shape> generate(int count, long seed) {
+        Random random = new Random(seed);
+        List<Shape> shapes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shapes.add(shape(random, i));
+        }
+        return shapes;
+    }
+
+    static Shape shape(Random random, int i) {
+        UUID id = new UUID(random.nextLong(), random.nextLong());
+        double x = random.nextDouble() * SIZE;
+        double y = random.nextDouble() * SIZE;
+        return i % 2 == 0
+                ? new Circle(id, x, y, 1 + random.nextDouble() * 20)
+                : new Rectangle(id, x, y, 1 + random.nextDouble() * 40, 1 + random.nextDouble() * 40);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.paint.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reflections.Reflections;
+
+import com.example.json.JsonMapper;
+import com.example.paint.core.CommandRegistry;
+import com.example.paint.core.ComponentIndex;
+import com.example.paint.core.RegisterCommand;
+import com.example.paint.core.ShapeRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StartupBenchmark {
+
+    private ComponentIndex index;
+
+    @Setup
+    public void setUp() {
+        index = ComponentIndex.load("com.example");
+    }
+
+    @Benchmark
+    public ObjectMapper jsonMapperCreate() {
+        return JsonMapper.create();
+    }
+
+    @Benchmark
+    public int registries() {
+        ShapeRegistry.registerShapes(index);
+        CommandRegistry.registerCommands(index);
+        return CommandRegistry.getCommands().size();
+    }
+
+    //Lo que costaba cada arranque antes del indice generado al compilar
+    @Benchmark
+    public int classpathScan() {
+        return new Reflections("com.example").getTypesAnnotatedWith(RegisterCommand.class).size();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.paint.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.json.JsonCodec;
+import com.example.paint.shapes.Shape;
+import com.example.paint.storage.BinaryStorage;
+import com.example.paint.storage.JsonStorage;
+import com.example.paint.storage.JsonStreamingStorage;
+import com.example.paint.storage.Storage;
+
+//Con -prof gc se obtiene ademas la tasa de asignacion (gc.alloc.rate.norm por operacion)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StorageBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int size;
+
+    @Param({ "json", "json-pretty", "json-stream", "binary" })
+    private String format;
+
+    private Storage storage;
+    private List<Shape> shapes;
+    private Path saved;
+    private Path target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        JsonCodec codec = JsonCodec.get();
+        storage = switch (format) {
+            case "json" -> new JsonStorage(codec);
+            case "json-pretty" -> new JsonStorage(codec.pretty());
+            case "json-stream" -> new JsonStreamingStorage(codec);
+            case "binary" -> new BinaryStorage(codec.getMapper());
+            default -> throw new IllegalArgumentException(format);
+        };
+        shapes = Drawings.generate(size, 42);
+        saved = Files.createTempFile("paint-bench", "." + format);
+        target = Files.createTempFile("paint-bench-out", "." + format);
+        storage.save(saved.toString(), shapes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(saved);
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public void save() {
+        storage.save(target.toString(), shapes);
+    }
+
+    @Benchmark
+    public List<Shape> load() {
+        return storage.load(saved.toString());
+    }
+}
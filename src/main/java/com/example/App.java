@@ -14,7 +14,7 @@ import java.util.List;
 //import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import com.example.json.JsonMapper;
+import com.example.json.JsonCodec;
 
 //import com.example.json.JsonMapper;
 //import com.example.paint.core.ShapeRegistry;
@@ -37,9 +37,12 @@ import com.example.paint.ioc.*;
 public class App {
         public static void main(String[] args) {
 
-                var mapper = JsonMapper.create();
-                var app = Ioc.createApp(mapper,System.in,System.out);
+                var codec = JsonCodec.get();
+                var app = Ioc.createApp(codec,System.in,System.out,PaintOptions.fromArgs(args));
                 app.run();
+                if (app.getExitStatus() != 0) {
+                        System.exit(app.getExitStatus());
+                }
 
                 //var rectangle = new Rectangle(UUID.randomUUID(), 0, 0, 10, 20);
                 /*List<Shape> shapes = List.of(
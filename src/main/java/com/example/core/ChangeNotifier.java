@@ -0,0 +1,8 @@
+package com.example.core;
+
+//Entidad con valores derivados que cambian sin que se llame a sus setters (p.ej. el precio de
+//una pizza cuando cambia el coste de un ingrediente): avisa a quien la indexa por ellos
+public interface ChangeNotifier {
+    void addChangeListener(Runnable listener);
+    void removeChangeListener(Runnable listener);
+}
@@ -1,6 +1,5 @@
 package com.example.core;
 
-import java.util.Objects;
 import java.util.UUID;
 
 
@@ -12,23 +11,34 @@ public abstract class EntityBase{
     }
 
     private final UUID id;
+    //el id se compara por sus dos mitades y el hash se calcula una vez
+    private final long msb;
+    private final long lsb;
+    private final int hash;
     protected EntityBase(UUID id){
         this.id = id;
+        this.msb = id == null ? 0 : id.getMostSignificantBits();
+        this.lsb = id == null ? 0 : id.getLeastSignificantBits();
+        //sin id solo es igual a si misma
+        this.hash = UuidHash.hash(id, this);
     } 
-    UUID getId(){
+    public UUID getId(){
         return id;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return hash;
     }
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
         //JAVA 16 pattern matching instance of
         //https://openjdk.org/jeps/394
         if(obj instanceof EntityBase e){
-            return e.getId().equals(id);
+            return id != null && e.id != null && e.msb == msb && e.lsb == lsb;
         }
         return false;
     }
@@ -0,0 +1,123 @@
+package com.example.core;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+
+//Conjunto de entidades indexado por id sobre un UuidMap: contains/add/remove no llaman a
+//hashCode ni equals y se puede recuperar la instancia guardada para un id (find/removeId).
+//Las entidades sin id (recien creadas por el ORM) se guardan aparte por identidad
+public class EntitySet<T extends EntityBase> extends AbstractSet<T> {
+    private final UuidMap<T> entities;
+    private final Set<T> withoutId = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public EntitySet() {
+        entities = new UuidMap<>();
+    }
+
+    public EntitySet(Collection<? extends T> initial) {
+        if (initial instanceof EntitySet<? extends T> other) {
+            @SuppressWarnings("unchecked")
+            EntitySet<T> source = (EntitySet<T>) other;
+            entities = new UuidMap<>(source.entities);
+            withoutId.addAll(source.withoutId);
+        } else {
+            entities = new UuidMap<>(initial.size());
+            addAll(initial);
+        }
+    }
+
+    @Override
+    public int size() {
+        return entities.size() + withoutId.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof EntityBase entity)) {
+            return false;
+        }
+        return entity.getId() == null ? withoutId.contains(entity) : entities.containsKey(entity.getId());
+    }
+
+    //Como HashSet: si ya hay una entidad con ese id se conserva la que estaba
+    @Override
+    public boolean add(T entity) {
+        UUID id = entity.getId();
+        if (id == null) {
+            return withoutId.add(entity);
+        }
+        if (entities.containsKey(id)) {
+            return false;
+        }
+        entities.put(id, entity);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof EntityBase entity)) {
+            return false;
+        }
+        return entity.getId() == null ? withoutId.remove(entity) : entities.remove(entity.getId()) != null;
+    }
+
+    public T find(UUID id) {
+        return entities.get(id);
+    }
+
+    //Devuelve la instancia que estaba guardada con ese id, o null
+    public T removeId(UUID id) {
+        return entities.remove(id);
+    }
+
+    //Como removeId, pero tambien para una entidad sin id (por identidad)
+    public T removeStored(T entity) {
+        if (entity.getId() == null) {
+            return withoutId.remove(entity) ? entity : null;
+        }
+        return entities.remove(entity.getId());
+    }
+
+    @Override
+    public void clear() {
+        entities.clear();
+        withoutId.clear();
+    }
+
+    //Primero las que tienen id y despues las demas; remove() funciona en las dos partes
+    @Override
+    public Iterator<T> iterator() {
+        if (withoutId.isEmpty()) {
+            return entities.iterator();
+        }
+        return new Iterator<>() {
+            private final Iterator<T> byId = entities.iterator();
+            private final Iterator<T> byIdentity = withoutId.iterator();
+            private Iterator<T> last;
+
+            @Override
+            public boolean hasNext() {
+                return byId.hasNext() || byIdentity.hasNext();
+            }
+
+            @Override
+            public T next() {
+                last = byId.hasNext() ? byId : byIdentity;
+                return last.next();
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                last.remove();
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.core;
+
+import java.util.UUID;
+
+//Hash de un UUID a partir de sus dos mitades, igual que UUID.hashCode() pero sin necesitar el objeto
+public final class UuidHash {
+    private UuidHash() {
+    }
+
+    public static int hash(long msb, long lsb) {
+        long hilo = msb ^ lsb;
+        return ((int) (hilo >> 32)) ^ (int) hilo;
+    }
+
+    //Hash de un objeto identificado por id: sin id, el de identidad del propio objeto
+    public static int hash(UUID id, Object owner) {
+        return id == null ? System.identityHashCode(owner) : hash(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    //Igualdad por id: dos objetos sin id nunca son iguales (solo a si mismos, lo comprueba quien llama)
+    public static boolean sameId(UUID a, UUID b) {
+        return a != null && b != null
+                && a.getMostSignificantBits() == b.getMostSignificantBits()
+                && a.getLeastSignificantBits() == b.getLeastSignificantBits();
+    }
+}
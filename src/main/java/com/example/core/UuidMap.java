@@ -0,0 +1,216 @@
+package com.example.core;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/*
+ * Mapa UUID -> valor con direccionamiento abierto: las claves se guardan como dos long en arrays
+ * paralelos (sin objetos UUID ni nodos por entrada) y se comparan por sus mitades.
+ * Los borrados dejan una marca (REMOVED) que se limpia al redimensionar. No admite valores null.
+ * No es thread-safe, como HashMap.
+ */
+public class UuidMap<V> implements Iterable<V> {
+    private static final Object REMOVED = new Object();
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] msbs;
+    private long[] lsbs;
+    //null = libre, REMOVED = borrado, otro = ocupado
+    private Object[] values;
+    private int size;
+    private int removed;
+    private int modifications;
+
+    public UuidMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public UuidMap(int expected) {
+        allocate(capacityFor(expected));
+    }
+
+    public UuidMap(UuidMap<V> other) {
+        msbs = other.msbs.clone();
+        lsbs = other.lsbs.clone();
+        values = other.values.clone();
+        size = other.size;
+        removed = other.removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public V get(UUID id) {
+        return get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long msb, long lsb) {
+        int slot = find(msb, lsb);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    public boolean containsKey(UUID id) {
+        return find(id.getMostSignificantBits(), id.getLeastSignificantBits()) >= 0;
+    }
+
+    //Devuelve el valor anterior o null
+    @SuppressWarnings("unchecked")
+    public V put(UUID id, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("UuidMap no admite valores null");
+        }
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int slot = find(msb, lsb);
+        if (slot >= 0) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        if ((size + removed + 1) * 4L > values.length * 3L) {
+            rehash(capacityFor(size + 1));
+        }
+        insert(msb, lsb, value);
+        size++;
+        modifications++;
+        return null;
+    }
+
+    //Devuelve el valor borrado (la instancia guardada) o null
+    public V remove(UUID id) {
+        int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        return slot < 0 ? null : removeAt(slot);
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+        removed = 0;
+        modifications++;
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<>() {
+            private int next = advance(0);
+            private int last = -1;
+            private int expected = modifications;
+
+            @Override
+            public boolean hasNext() {
+                return next < values.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (expected != modifications) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= values.length) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = advance(next + 1);
+                return (V) values[last];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                removeAt(last);
+                last = -1;
+                expected = modifications;
+            }
+        };
+    }
+
+    private int advance(int from) {
+        while (from < values.length && (values[from] == null || values[from] == REMOVED)) {
+            from++;
+        }
+        return from;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeAt(int slot) {
+        V previous = (V) values[slot];
+        values[slot] = REMOVED;
+        size--;
+        removed++;
+        modifications++;
+        return previous;
+    }
+
+    private int find(long msb, long lsb) {
+        int mask = values.length - 1;
+        for (int slot = slotOf(msb, lsb, mask); ; slot = (slot + 1) & mask) {
+            Object value = values[slot];
+            if (value == null) {
+                return -1;
+            }
+            if (value != REMOVED && msbs[slot] == msb && lsbs[slot] == lsb) {
+                return slot;
+            }
+        }
+    }
+
+    private void insert(long msb, long lsb, Object value) {
+        int mask = values.length - 1;
+        int slot = slotOf(msb, lsb, mask);
+        while (values[slot] != null && values[slot] != REMOVED) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == REMOVED) {
+            removed--;
+        }
+        msbs[slot] = msb;
+        lsbs[slot] = lsb;
+        values[slot] = value;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMsbs = msbs;
+        long[] oldLsbs = lsbs;
+        Object[] oldValues = values;
+        allocate(capacity);
+        removed = 0;
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] != null && oldValues[slot] != REMOVED) {
+                insert(oldMsbs[slot], oldLsbs[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        msbs = new long[capacity];
+        lsbs = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    //Potencia de dos con ocupacion <= 1/2 tras crecer (el limite para crecer es 3/4)
+    private static int capacityFor(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expected * 2L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int slotOf(long msb, long lsb, int mask) {
+        //los UUID aleatorios ya estan repartidos; se mezcla por si no lo estan (ids secuenciales)
+        long mixed = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & mask;
+    }
+}
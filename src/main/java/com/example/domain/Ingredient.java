@@ -1,5 +1,6 @@
 package com.example.domain;
 
+import java.util.List;
 import java.util.UUID;
 
 import com.example.core.EntityBase;
@@ -8,7 +9,12 @@ import com.example.core.EntityBase;
 
 
 public class Ingredient extends EntityBase {
-    
+    //Indice inverso: pizzas que contienen este ingrediente, para recalcular solo esas
+    //cuando cambia su coste. Va en cada instancia y no en un mapa por id porque el precio
+    //depende de la instancia que tiene la pizza. Por identidad y con referencias debiles: cada
+    //instancia de pizza cuenta aunque tenga el id de otra, y no retiene las que ya no se usan
+    private final WeakIdentitySet<Pizza> pizzas = new WeakIdentitySet<>();
+
     private String name;
     private double cost;
     
@@ -31,8 +37,28 @@ public class Ingredient extends EntityBase {
     public void update(String name, double cost){
         //ingredient.update
         this.name = name;
-        this.cost = cost;
-    }      
+        if (Double.compare(this.cost, cost) != 0) {
+            this.cost = cost;
+            for (Pizza pizza : getPizzas()) {
+                pizza.costChanged();
+            }
+        }
+    }
+    void addPizza(Pizza pizza) {
+        synchronized (pizzas) {
+            pizzas.add(pizza);
+        }
+    }
+    void removePizza(Pizza pizza) {
+        synchronized (pizzas) {
+            pizzas.remove(pizza);
+        }
+    }
+    List<Pizza> getPizzas() {
+        synchronized (pizzas) {
+            return pizzas.toList();
+        }
+    }
     public static Ingredient create(UUID id, String name, double cost){
         //ingredient.new
         return new Ingredient(id, name, cost);
@@ -1,36 +1,83 @@
 package com.example.domain;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.example.core.ChangeNotifier;
 import com.example.core.EntityBase;
+import com.example.core.EntitySet;
 
 
 
 
-public class Pizza extends EntityBase {
+public class Pizza extends EntityBase implements ChangeNotifier {
     private static final double PROFIT= 1.2D;
     
     private String name;
     private String description;
     private String url;    
-    private Set<Ingredient> ingredients;
+    private EntitySet<Ingredient> ingredients;
+    private Set<Ingredient> ingredientsView;
+    private record Cost(long version, double value) {
+    }
+    //suma de los costes, recalculada entera al invalidarse: sumar y restar diferencias
+    //iria acumulando error de redondeo. Los ingredientes avisan (costChanged) al cambiar la suya.
+    //Cada aviso sube la version; una suma solo vale para la version que habia al empezarla, asi
+    //una lectura que coincide con un cambio en otro hilo no deja guardado un coste antiguo
+    private final AtomicLong costVersion = new AtomicLong();
+    private volatile Cost cost;
+    //p.ej. un repositorio indexado por precio
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
     
     protected Pizza(UUID id, String name, String description, String url, Set<Ingredient> ingredients) {
         super(id);
         this.name = name;
         this.description = description;
         this.url = url;
-        this.ingredients = new HashSet<>(ingredients);
+        this.ingredients = new EntitySet<>(ingredients);
+        this.ingredientsView = Collections.unmodifiableSet(this.ingredients);
+        this.ingredients.forEach(ingredient -> ingredient.addPizza(this));
     }
     public double getPrice(){
-        return ingredients.stream()
-            .map(i->i.getCost())
-            .reduce(0D, Double::sum) * PROFIT;
+        return getCost() * PROFIT;
+    }
+    private double getCost(){
+        long version = costVersion.get();
+        Cost current = cost;
+        if (current != null && current.version() == version) {
+            return current.value();
+        }
+        double sum = 0;
+        for (Ingredient ingredient : ingredients) {
+            sum += ingredient.getCost();
+        }
+        if (costVersion.get() == version) {
+            cost = new Cost(version, sum);
+        }
+        return sum;
+    }
+    void costChanged() {
+        costVersion.incrementAndGet();
+        listeners.forEach(Runnable::run);
+    }
+    @Override
+    public void addChangeListener(Runnable listener) {
+        listeners.add(listener);
+    }
+    @Override
+    public void removeChangeListener(Runnable listener) {
+        listeners.remove(listener);
     }
     public Set<Ingredient> getIngredients() {
-        return new HashSet<>(ingredients);
+        return new EntitySet<>(ingredients);
+    }
+    //Solo lectura y sin copia: refleja los cambios posteriores de la pizza
+    public Set<Ingredient> getIngredientsView() {
+        return ingredientsView;
     }
     
     public String getName() {
@@ -44,11 +91,19 @@ public class Pizza extends EntityBase {
     }
     public void addIngedient(Ingredient ingredient){
         //pizza.addingredient
-        ingredients.add(ingredient);
+        if (ingredients.add(ingredient)) {
+            ingredient.addPizza(this);
+            costChanged();
+        }
     }
     public void removeIngredient(Ingredient ingredient){
         //pizza.removeingredient
-        ingredients.remove(ingredient);
+        //la instancia guardada, que puede no ser la recibida aunque tenga el mismo id
+        Ingredient removed = ingredients.removeStored(ingredient);
+        if (removed != null) {
+            removed.removePizza(this);
+            costChanged();
+        }
     }
     public void update(String name, String description, String url){
         //pizza.update
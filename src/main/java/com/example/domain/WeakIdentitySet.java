@@ -0,0 +1,71 @@
+package com.example.domain;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+//Conjunto por identidad (==) con referencias debiles. WeakHashMap compara con equals y dos
+//pizzas distintas con el mismo id contarian como una sola
+final class WeakIdentitySet<T> {
+    private final Set<Entry<T>> entries = new HashSet<>();
+    private final ReferenceQueue<T> cleared = new ReferenceQueue<>();
+
+    boolean add(T value) {
+        expunge();
+        return entries.add(new Entry<>(value, cleared));
+    }
+
+    boolean remove(T value) {
+        expunge();
+        return entries.remove(new Entry<>(value, null));
+    }
+
+    List<T> toList() {
+        expunge();
+        List<T> values = new ArrayList<>(entries.size());
+        for (Entry<T> entry : entries) {
+            T value = entry.get();
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    private void expunge() {
+        Object entry;
+        while ((entry = cleared.poll()) != null) {
+            entries.remove(entry);
+        }
+    }
+
+    //el hash se guarda al crearla: tiene que seguir encontrandose despues de perder el valor
+    private static final class Entry<T> extends WeakReference<T> {
+        private final int hash;
+
+        Entry(T value, ReferenceQueue<T> queue) {
+            super(value, queue);
+            this.hash = System.identityHashCode(value);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof Entry<?> other) {
+                Object value = get();
+                return value != null && value == other.get();
+            }
+            return false;
+        }
+    }
+}
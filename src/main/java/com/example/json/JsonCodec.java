@@ -0,0 +1,77 @@
+package com.example.json;
+
+import java.util.List;
+
+import com.example.paint.shapes.Shape;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+//Un unico ObjectMapper configurado y sus lectores/escritores ya resueltos: las cachés de
+//serializadores de Jackson se reutilizan entre guardados. Compacto por defecto, pretty() para indentar
+public final class JsonCodec {
+    private static final TypeReference<List<Shape>> SHAPES = new TypeReference<>() {
+    };
+
+    private static final JsonCodec COMPACT = new JsonCodec(JsonMapper.create(), false);
+    private static final JsonCodec PRETTY = new JsonCodec(COMPACT.mapper, true);
+
+    private final ObjectMapper mapper;
+    private final boolean pretty;
+    private final ObjectWriter shapesWriter;
+    private final ObjectWriter shapeWriter;
+    private final ObjectReader shapesReader;
+    private final ObjectReader shapeReader;
+
+    private JsonCodec(ObjectMapper mapper, boolean pretty) {
+        this.mapper = mapper;
+        this.pretty = pretty;
+        this.shapesWriter = indent(mapper.writerFor(SHAPES), pretty);
+        this.shapeWriter = indent(mapper.writerFor(Shape.class), pretty);
+        this.shapesReader = mapper.readerFor(SHAPES);
+        this.shapeReader = mapper.readerFor(Shape.class);
+    }
+
+    public static JsonCodec get() {
+        return COMPACT;
+    }
+
+    public JsonCodec pretty() {
+        return PRETTY;
+    }
+
+    public JsonCodec compact() {
+        return COMPACT;
+    }
+
+    public boolean isPretty() {
+        return pretty;
+    }
+
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    //List<Shape> completa
+    public ObjectWriter shapesWriter() {
+        return shapesWriter;
+    }
+
+    public ObjectReader shapesReader() {
+        return shapesReader;
+    }
+
+    //Una figura cada vez, para escribir o leer en streaming
+    public ObjectWriter shapeWriter() {
+        return shapeWriter;
+    }
+
+    public ObjectReader shapeReader() {
+        return shapeReader;
+    }
+
+    private static ObjectWriter indent(ObjectWriter writer, boolean pretty) {
+        return pretty ? writer.withDefaultPrettyPrinter() : writer;
+    }
+}
@@ -2,12 +2,10 @@ package com.example.json;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 
 import java.util.Set;
 
-import org.reflections.Reflections;
-
+import com.example.paint.core.ComponentIndex;
 import com.example.paint.shapes.Shape;
 import com.fasterxml.jackson.databind.jsontype.NamedType;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
@@ -20,18 +18,15 @@ public class JsonMapper {
         
         mapper.registerModule(new ParameterNamesModule());
         
-        registerSubtypesAutomatically(mapper, Shape.class, "com.example"); 
-        
-        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        registerSubtypesAutomatically(mapper, "com.example");
 
         return mapper;
     }
 
-    private static <T> void registerSubtypesAutomatically(ObjectMapper mapper, Class<T> baseClass, String packageName) {
-        Reflections reflections = new Reflections(packageName);
-        Set<Class<? extends T>> subtypes = reflections.getSubTypesOf(baseClass);
+    private static void registerSubtypesAutomatically(ObjectMapper mapper, String packageName) {
+        Set<Class<? extends Shape>> subtypes = ComponentIndex.load(packageName).getShapeTypes();
 
-        for (Class<? extends T> subtype : subtypes) {
+        for (Class<? extends Shape> subtype : subtypes) {
             String typeName = getTypeName(subtype);
             mapper.registerSubtypes(new NamedType(subtype, typeName));
         }
@@ -2,4 +2,9 @@ package com.example.paint.app;
 
 public interface AppPaint {
     void run();
+
+    //Codigo de salida del proceso tras run(): distinto de 0 si algun comando fallo
+    default int getExitStatus() {
+        return 0;
+    }
 } 
@@ -0,0 +1,92 @@
+package com.example.paint.app;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import com.example.paint.canvas.Canvas;
+import com.example.paint.commands.CommandContext;
+import com.example.paint.commands.CommandHistory;
+import com.example.paint.core.CommandRegistry;
+import com.example.paint.core.InputReaderTokens;
+import com.example.paint.core.InputWriter;
+import com.example.paint.core.InputWriterBatch;
+import com.example.paint.core.ShapeRegistry;
+import com.example.paint.ioc.Ioc;
+
+//Ejecuta un comando por linea ("add circle 10 10 5", "move <id> 1 2") sin menu ni pausas.
+//Los argumentos se entregan a las mismas CommandFactory que usa el modo interactivo
+public class AppPaintBatch implements AppPaint {
+
+    private final BufferedReader source;
+    private final InputWriter writer;
+    private final CommandContext context;
+    private final CommandLine commands;
+    private boolean isRunning;
+    private int errors;
+
+    public AppPaintBatch(BufferedReader source, InputWriter writer, Canvas canvas, CommandHistory history) {
+        var arguments = new InputReaderTokens();
+        this.source = source;
+        this.writer = writer;
+        this.context = new CommandContext(
+                canvas,
+                arguments,
+                new InputWriterBatch(writer),
+                () -> isRunning = false,
+                history);
+        this.commands = new CommandLine(context, arguments);
+    }
+
+    @Override
+    public void run() {
+        initialize();
+
+        long start = System.nanoTime();
+        int lineNumber = 0;
+        int executed = 0;
+        errors = 0;
+        try (source) {
+            String line;
+            while (isRunning && (line = source.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.strip();
+                if (!CommandLine.isCommand(trimmed)) {
+                    continue;
+                }
+                try {
+                    commands.execute(trimmed);
+                    executed++;
+                } catch (Exception e) {
+                    errors++;
+                    writer.printf("Línea %d: %s%n", lineNumber, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            errors++;
+            writer.println("Error leyendo los comandos: " + e.getMessage());
+        }
+        try {
+            context.getCanvas().awaitPendingIo();
+        } catch (RuntimeException e) {
+            errors++;
+            writer.println("Error en segundo plano: " + e.getMessage());
+        }
+
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        writer.printf("%d comandos (%d errores) en %d ms: %.0f comandos/s%n",
+                executed, errors, elapsed / 1_000_000, executed * 1e9 / elapsed);
+        writer.flush();
+    }
+
+    @Override
+    public int getExitStatus() {
+        return errors > 0 ? 1 : 0;
+    }
+
+    private void initialize() {
+        var index = Ioc.createComponentIndex("com.example");
+        isRunning = true;
+        ShapeRegistry.registerShapes(index);
+        CommandRegistry.registerCommands(index);
+    }
+}
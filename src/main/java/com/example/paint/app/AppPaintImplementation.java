@@ -3,6 +3,7 @@ package com.example.paint.app;
 import com.example.paint.canvas.Canvas;
 import com.example.paint.commands.Command;
 import com.example.paint.commands.CommandContext;
+import com.example.paint.commands.CommandHistory;
 import com.example.paint.core.CommandRegistry;
 import com.example.paint.core.ConsoleUtils;
 import com.example.paint.core.InputReader;
@@ -14,13 +15,20 @@ public class AppPaintImplementation implements AppPaint {
 
     private Boolean isRunning;
     private CommandContext context = null;
+    //el menu no cambia despues de registrar los comandos: se formatea una vez
+    private String menu;
 
     public AppPaintImplementation(InputReader reader, InputWriter writer, Canvas canvas) {
+        this(reader, writer, canvas, new CommandHistory(CommandHistory.DEFAULT_CAPACITY));
+    }
+
+    public AppPaintImplementation(InputReader reader, InputWriter writer, Canvas canvas, CommandHistory history) {
         this.context = new CommandContext(
                 canvas,
                 reader,
                 writer,
-                () -> isRunning = false);
+                () -> isRunning = false,
+                history);
 
     }
 
@@ -44,25 +52,33 @@ public class AppPaintImplementation implements AppPaint {
                 }
             } catch (Exception e) {
                 writer.println(e.getMessage());
+                writer.flush();
                 reader.nextLine();
             }
 
         }
+        writer.flush();
         reader.close();
     }
 
     private void initialize() {
-        var reflections = Ioc.createReflection("com.example");
+        var index = Ioc.createComponentIndex("com.example");
         isRunning = true;
-        ShapeRegistry.registerShapes(context, reflections);
-        CommandRegistry.registerCommands(reflections);
+        ShapeRegistry.registerShapes(index);
+        CommandRegistry.registerCommands(index);
+        menu = buildMenu();
+    }
+
+    private String buildMenu() {
+        var text = new StringBuilder("\n--- MENÚ ---").append(System.lineSeparator());
+        CommandRegistry.getCommands().forEach(
+                (key, entry) -> text.append(key).append(": ").append(entry.description).append(System.lineSeparator()));
+        return text.toString();
     }
 
     private void showMenu(InputWriter writer) {
         ConsoleUtils.clearConsole();
-        writer.println("\n--- MENÚ ---");
-        CommandRegistry.getCommands().forEach(
-                (key, entry) -> writer.printf("%s: %s%n", key, entry.description));
+        writer.print(menu);
     }
 
     private String promptUserChoice(InputWriter writer, InputReader reader) {
@@ -76,7 +92,7 @@ public class AppPaintImplementation implements AppPaint {
             return ExecutionResult.INVALID;
 
         Command command = cmdEntry.factory.create(context);
-        command.execute();
+        context.getHistory().execute(command);
 
         return isRunning ? ExecutionResult.VALID : ExecutionResult.EXIT;
     }
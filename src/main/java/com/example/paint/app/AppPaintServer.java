@@ -0,0 +1,103 @@
+package com.example.paint.app;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executors;
+
+import com.example.paint.canvas.Canvas;
+import com.example.paint.commands.CommandContext;
+import com.example.paint.commands.CommandHistory;
+import com.example.paint.core.CommandRegistry;
+import com.example.paint.core.InputReaderStream;
+import com.example.paint.core.InputReaderTokens;
+import com.example.paint.core.InputWriter;
+import com.example.paint.core.InputWriterBatch;
+import com.example.paint.core.InputWriterBuffered;
+import com.example.paint.core.ShapeRegistry;
+import com.example.paint.ioc.Ioc;
+
+//Servidor TCP: cada conexion es una sesion con el mismo protocolo que el modo batch (una linea por
+//comando) y su propio contexto e historial de deshacer, en un hilo virtual. Todas comparten el canvas.
+//La salida de cada comando se envia al terminarlo; "exit" cierra solo esa sesion
+public class AppPaintServer implements AppPaint {
+
+    private final int port;
+    private final InputWriter log;
+    private final Canvas canvas;
+    private final int historyCapacity;
+
+    public AppPaintServer(int port, InputWriter log, Canvas canvas, int historyCapacity) {
+        this.port = port;
+        this.log = log;
+        this.canvas = canvas;
+        this.historyCapacity = historyCapacity;
+    }
+
+    @Override
+    public void run() {
+        var index = Ioc.createComponentIndex("com.example");
+        ShapeRegistry.registerShapes(index);
+        CommandRegistry.registerCommands(index);
+
+        try (var server = new ServerSocket(port);
+             var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            log.println("Servidor escuchando en el puerto " + server.getLocalPort());
+            log.flush();
+            while (true) {
+                Socket socket = server.accept();
+                executor.execute(() -> serve(socket));
+            }
+        } catch (IOException e) {
+            log.println("Error en el servidor: " + e.getMessage());
+            log.flush();
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            var reader = new InputReaderStream(socket.getInputStream(), StandardCharsets.UTF_8);
+            var writer = new InputWriterBuffered(Channels.newChannel(socket.getOutputStream()), StandardCharsets.UTF_8);
+            var arguments = new InputReaderTokens();
+            var session = new Session();
+            var context = new CommandContext(
+                    canvas,
+                    arguments,
+                    new InputWriterBatch(writer),
+                    () -> session.open = false,
+                    new CommandHistory(historyCapacity));
+            var commands = new CommandLine(context, arguments);
+
+            while (session.open) {
+                String line;
+                try {
+                    line = reader.nextLine().strip();
+                } catch (NoSuchElementException e) {
+                    break;
+                }
+                if (!CommandLine.isCommand(line)) {
+                    continue;
+                }
+                try {
+                    commands.execute(line);
+                } catch (UncheckedIOException e) {
+                    throw e;
+                } catch (Exception e) {
+                    writer.println("Error: " + e.getMessage());
+                }
+                writer.flush();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            //el cliente cerro la conexion
+        }
+    }
+
+    private static final class Session {
+        volatile boolean open = true;
+    }
+}
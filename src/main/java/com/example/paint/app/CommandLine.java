@@ -0,0 +1,43 @@
+package com.example.paint.app;
+
+import com.example.paint.commands.Command;
+import com.example.paint.commands.CommandContext;
+import com.example.paint.core.CommandRegistry;
+import com.example.paint.core.InputReaderTokens;
+
+//Ejecuta una linea "nombre argumentos..." con las CommandFactory registradas, sin menu ni prompts.
+//Lo comparten el modo batch y las sesiones del servidor
+class CommandLine {
+    private final CommandContext context;
+    private final InputReaderTokens arguments;
+
+    //el contexto debe leer de arguments
+    CommandLine(CommandContext context, InputReaderTokens arguments) {
+        this.context = context;
+        this.arguments = arguments;
+    }
+
+    void execute(String line) {
+        int space = line.indexOf(' ');
+        String name = space < 0 ? line : line.substring(0, space);
+        var cmdEntry = CommandRegistry.getCommands().get(name);
+        if (cmdEntry == null) {
+            throw new IllegalArgumentException("Comando desconocido: " + name);
+        }
+
+        arguments.feed(space < 0 ? "" : line.substring(space + 1));
+        Command command = cmdEntry.factory.create(context);
+        if (arguments.remaining() > 0) {
+            throw new IllegalArgumentException("Sobran argumentos en: " + line);
+        }
+        context.getHistory().execute(command);
+        //las operaciones asincronas (save/load) terminan antes de la linea siguiente y su fallo
+        //es el de esta linea
+        context.getCanvas().awaitPendingIo();
+    }
+
+    //Lineas vacias y comentarios (#) no son comandos
+    static boolean isCommand(String line) {
+        return !line.isEmpty() && !line.startsWith("#");
+    }
+}
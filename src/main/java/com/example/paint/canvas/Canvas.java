@@ -1,13 +1,58 @@
 package com.example.paint.canvas;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+import com.example.paint.core.InputWriter;
+import com.example.paint.shapes.Shape;
 
 
 public interface Canvas extends CanvasAddShape {
     
     void listShapes();
-    void removeShape(UUID id);
+    //Lista en la salida indicada (p.ej. la de una sesion) en lugar de la del canvas
+    void listShapes(InputWriter out);
+    Optional<Shape> findShape(UUID id);
+    //Copia de la lista en orden de alta; las figuras no se copian
+    List<Shape> getShapes();
+    //Sustituye todas las figuras solo en memoria, sin avisar al Storage, y le adjunta el fichero
+    //indicado (null: ninguno). Para deshacer una carga: esas figuras ya estan en ese fichero
+    void replaceShapes(Collection<Shape> shapes, String attachedFile);
+    //Fichero adjunto al Storage, o null
+    String attachedFile();
+    //Baja por id, con su posicion para restoreShapes; vacio si no esta
+    Optional<RemovedShape> removeShape(UUID id);
     void moveShape(UUID id, double dx, double dy);
+    //Operaciones masivas: una pasada sobre todas las figuras; devuelven lo afectado
+    List<UUID> moveShapes(Predicate<Shape> filter, double dx, double dy);
+    default List<UUID> moveShapes(Collection<UUID> ids, double dx, double dy) {
+        return moveShapes(ShapeFilters.withIds(ids), dx, dy);
+    }
+    //Las bajas en orden de alta, con su posicion para restoreShapes
+    List<RemovedShape> removeShapes(Predicate<Shape> filter);
+    //Vuelve a insertar las bajas en la posicion que tenian
+    void restoreShapes(List<RemovedShape> removed);
+    //Devuelve el estado de cada figura antes de escalarla
+    List<Shape> scaleShapes(Predicate<Shape> filter, double factor);
+    //Sustituye cada figura por el estado indicado (mismo id), p.ej. uno devuelto por scaleShapes
+    void updateShapes(Collection<Shape> states);
+    //Total de figuras y area, caja que las contiene a todas y cuenta/area por tipo
+    ShapeStats stats();
+    //Pagina de las figuras que cumplen el filtro, en orden de alta; solo se copia la pagina
+    default List<Shape> findShapes(Predicate<Shape> filter, int offset, int limit) {
+        return getShapes().stream().filter(filter).skip(offset).limit(limit).toList();
+    }
+    List<Shape> findShapesAt(double x, double y);
+    List<Shape> findShapesIn(double minX, double minY, double maxX, double maxY);
     void saveToJson(String filename);
     void loadFromJson(String filename);
+    CompletableFuture<Integer> saveToJsonAsync(String filename, IntConsumer progress);
+    CompletableFuture<Integer> loadFromJsonAsync(String filename);
+    //Espera a la ultima carga o guardado asincrono y lanza su fallo (una sola vez)
+    void awaitPendingIo();
 }
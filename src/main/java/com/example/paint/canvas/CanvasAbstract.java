@@ -0,0 +1,294 @@
+package com.example.paint.canvas;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+import com.example.paint.core.InputWriter;
+import com.example.paint.shapes.Bounds;
+import com.example.paint.shapes.Shape;
+import com.example.paint.storage.Storage;
+
+public abstract class CanvasAbstract implements Canvas {
+
+    private final Storage storage;
+    private final InputWriter writer;
+    private final SpatialGrid grid = new SpatialGrid();
+    private final AtomicInteger pendingSnapshots = new AtomicInteger();
+    //figuras creadas despues del ultimo snapshot: se pueden modificar en sitio
+    private final Set<Shape> copied = Collections.newSetFromMap(new IdentityHashMap<>());
+    //ultima operacion asincrona pedida; como el hilo de E/S es unico, las anteriores ya terminaron
+    private final AtomicReference<CompletableFuture<?>> lastIo = new AtomicReference<>(CanvasIo.DONE);
+
+    protected CanvasAbstract(Storage storage, InputWriter writer) {
+        this.storage = storage;
+        this.writer = writer;
+    }
+
+    protected abstract Collection<Shape> shapes();
+
+    protected abstract void insertShape(Shape shape);
+
+    protected abstract Optional<Shape> findShapeById(UUID id);
+
+    protected abstract void replaceShape(Shape current, Shape replacement);
+
+    //Quita las figuras (en orden de alta) y devuelve la posicion de cada una para reinsertShapes
+    protected abstract List<RemovedShape> deleteShapes(List<Shape> selected);
+
+    //Vuelve a poner en su posicion las bajas que no estan y devuelve las que ha puesto
+    protected abstract List<Shape> reinsertShapes(List<RemovedShape> removed);
+
+    protected abstract void clearShapes();
+
+    @Override
+    public synchronized void addShape(Shape shape) {
+        attachShape(shape);
+        storage.shapeAdded(shape);
+    }
+
+    @Override
+    public void listShapes() {
+        listShapes(writer);
+    }
+
+    @Override
+    public synchronized void listShapes(InputWriter out) {
+        var shapes = shapes();
+        if (shapes.size() > 0) {
+            shapes.forEach(out::println);
+        } else {
+            out.println("No existen figuras");
+        }
+    }
+
+    @Override
+    public synchronized Optional<Shape> findShape(UUID id) {
+        return findShapeById(id);
+    }
+
+    @Override
+    public synchronized List<Shape> getShapes() {
+        return new ArrayList<>(shapes());
+    }
+
+    @Override
+    public synchronized void replaceShapes(Collection<Shape> replacement, String attachedFile) {
+        swapShapes(replacement, attachedFile);
+    }
+
+    @Override
+    public String attachedFile() {
+        return storage.attached();
+    }
+
+    @Override
+    public synchronized Optional<RemovedShape> removeShape(UUID id) {
+        return findShapeById(id).map(shape -> {
+            RemovedShape removed = deleteShapes(List.of(shape)).get(0);
+            grid.remove(shape);
+            storage.shapeRemoved(shape);
+            return removed;
+        });
+    }
+
+    @Override
+    public synchronized void moveShape(UUID id, double dx, double dy) {
+        findShapeById(id).ifPresent(shape -> {
+            Shape target = editable(shape);
+            target.move(dx, dy);
+            grid.update(target);
+            storage.shapeMoved(target, dx, dy);
+        });
+    }
+
+    @Override
+    public synchronized List<UUID> moveShapes(Predicate<Shape> filter, double dx, double dy) {
+        List<UUID> moved = new ArrayList<>();
+        for (Shape shape : CanvasBulk.select(shapes(), filter)) {
+            Shape target = editable(shape);
+            target.move(dx, dy);
+            grid.update(target);
+            storage.shapeMoved(target, dx, dy);
+            moved.add(target.getId());
+        }
+        return moved;
+    }
+
+    //Busqueda por id de cada figura; los ids repetidos o que no estan se ignoran
+    @Override
+    public synchronized List<UUID> moveShapes(Collection<UUID> ids, double dx, double dy) {
+        List<UUID> moved = new ArrayList<>();
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            findShapeById(id).ifPresent(shape -> {
+                Shape target = editable(shape);
+                target.move(dx, dy);
+                grid.update(target);
+                storage.shapeMoved(target, dx, dy);
+                moved.add(target.getId());
+            });
+        }
+        return moved;
+    }
+
+    @Override
+    public synchronized List<RemovedShape> removeShapes(Predicate<Shape> filter) {
+        List<Shape> selected = CanvasBulk.select(shapes(), filter);
+        List<RemovedShape> removed = deleteShapes(selected);
+        for (Shape shape : selected) {
+            grid.remove(shape);
+            storage.shapeRemoved(shape);
+        }
+        return removed;
+    }
+
+    @Override
+    public synchronized void restoreShapes(List<RemovedShape> removed) {
+        for (Shape shape : reinsertShapes(removed)) {
+            grid.add(shape);
+            storage.shapeAdded(shape);
+        }
+    }
+
+    @Override
+    public synchronized List<Shape> scaleShapes(Predicate<Shape> filter, double factor) {
+        List<Shape> previous = new ArrayList<>();
+        for (Shape shape : CanvasBulk.select(shapes(), filter)) {
+            previous.add(shape.copy());
+            Shape target = editable(shape);
+            target.scale(factor);
+            grid.update(target);
+            storage.shapeUpdated(target);
+        }
+        return previous;
+    }
+
+    //Se sustituye la figura por una copia del estado: la que habia puede estar en un snapshot
+    @Override
+    public synchronized void updateShapes(Collection<Shape> states) {
+        for (Shape state : states) {
+            findShapeById(state.getId()).ifPresent(current -> {
+                Shape copy = state.copy();
+                replaceShape(current, copy);
+                grid.remove(current);
+                grid.add(copy);
+                copied.add(copy);
+                storage.shapeUpdated(copy);
+            });
+        }
+    }
+
+    @Override
+    public synchronized ShapeStats stats() {
+        return CanvasBulk.stats(shapes());
+    }
+
+    @Override
+    public synchronized List<Shape> findShapes(Predicate<Shape> filter, int offset, int limit) {
+        return shapes().stream().filter(filter).skip(offset).limit(limit).toList();
+    }
+
+    @Override
+    public synchronized List<Shape> findShapesAt(double x, double y) {
+        return grid.findAt(x, y);
+    }
+
+    @Override
+    public synchronized List<Shape> findShapesIn(double minX, double minY, double maxX, double maxY) {
+        return grid.findIn(Bounds.of(minX, minY, maxX, maxY));
+    }
+
+    @Override
+    public synchronized void saveToJson(String filename) {
+        storage.saveEach(filename, shapes());
+    }
+
+    @Override
+    public synchronized void loadFromJson(String filename) {
+        swapShapes(storage.load(filename), filename);
+    }
+
+    @Override
+    public CompletableFuture<Integer> saveToJsonAsync(String filename, IntConsumer progress) {
+        List<Shape> snapshot = snapshot();
+        return track(storage.saveAsync(filename, CanvasIo.withProgress(snapshot, progress), CanvasIo.EXECUTOR)
+                            .whenComplete((ok, error) -> pendingSnapshots.decrementAndGet())
+                            .thenApply(ok -> snapshot.size()));
+    }
+
+    //Con el lock: si el Storage carga en este mismo hilo, la lectura y el cambio de figuras son atomicos
+    @Override
+    public synchronized CompletableFuture<Integer> loadFromJsonAsync(String filename) {
+        return track(storage.loadAsync(filename, CanvasIo.EXECUTOR)
+                            .thenApply(shapes -> {
+                                swapShapes(shapes, filename);
+                                return shapes.size();
+                            }));
+    }
+
+    @Override
+    public void awaitPendingIo() {
+        CanvasIo.awaitLast(lastIo);
+    }
+
+    private <T> CompletableFuture<T> track(CompletableFuture<T> io) {
+        lastIo.set(io);
+        return io;
+    }
+
+    //Copia de las referencias; mientras haya un snapshot pendiente las figuras
+    //no se modifican en sitio sino que se sustituyen por una copia (copy-on-write)
+    private synchronized List<Shape> snapshot() {
+        pendingSnapshots.incrementAndGet();
+        copied.clear();
+        return new ArrayList<>(shapes());
+    }
+
+    protected Shape editable(Shape shape) {
+        if (pendingSnapshots.get() == 0) {
+            copied.clear();
+            return shape;
+        }
+        if (copied.contains(shape)) {
+            return shape;
+        }
+        Shape copy = shape.copy();
+        replaceShape(shape, copy);
+        grid.remove(shape);
+        grid.add(copy);
+        copied.add(copy);
+        return copy;
+    }
+
+    //El fichero se adjunta al Storage despues de sustituir las figuras, nunca antes
+    private synchronized void swapShapes(Collection<Shape> loaded, String filename) {
+        clearShapes();
+        grid.clear();
+        loaded.forEach(this::attachShape);
+        storage.attach(filename);
+    }
+
+    private void attachShape(Shape shape) {
+        insertShape(shape);
+        grid.add(shape);
+    }
+
+    protected Storage getStorage() {
+        return storage;
+    }
+
+    protected InputWriter getWriter() {
+        return writer;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.paint.canvas;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.example.paint.shapes.Shape;
+
+//Seleccion de las figuras afectadas por una operacion masiva: una sola pasada,
+//en paralelo a partir de PARALLEL_THRESHOLD figuras
+final class CanvasBulk {
+    static final int PARALLEL_THRESHOLD = 10_000;
+
+    private CanvasBulk() {
+    }
+
+    static <T> List<T> select(Collection<T> items, Predicate<? super T> filter) {
+        if (items.size() >= PARALLEL_THRESHOLD) {
+            return items.parallelStream().filter(filter).collect(Collectors.toList());
+        }
+        List<T> selected = new ArrayList<>();
+        for (T item : items) {
+            if (filter.test(item)) {
+                selected.add(item);
+            }
+        }
+        return selected;
+    }
+
+    static ShapeStats stats(Collection<Shape> shapes) {
+        if (shapes.size() >= PARALLEL_THRESHOLD) {
+            return shapes.parallelStream()
+                         .collect(StatsAccumulator::new, StatsAccumulator::add, StatsAccumulator::combine)
+                         .result();
+        }
+        StatsAccumulator stats = new StatsAccumulator();
+        for (Shape shape : shapes) {
+            stats.add(shape);
+        }
+        return stats.result();
+    }
+
+    static int[] select(int size, IntPredicate filter) {
+        IntStream rows = IntStream.range(0, size);
+        return (size >= PARALLEL_THRESHOLD ? rows.parallel() : rows).filter(filter).toArray();
+    }
+}
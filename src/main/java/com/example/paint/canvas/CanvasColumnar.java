@@ -0,0 +1,387 @@
+package com.example.paint.canvas;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+import com.example.paint.core.InputWriter;
+import com.example.paint.shapes.Bounds;
+import com.example.paint.shapes.Shape;
+import com.example.paint.storage.ShapeLayout;
+import com.example.paint.storage.Storage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//Figuras guardadas por columnas (ShapeColumns) e indexadas por UUID sin objetos por figura.
+//Las Shape que devuelve son vistas creadas al pedirlas. Las bajas dejan la fila marcada
+//hasta que superan la mitad de las filas y se compacta, para conservar el orden de alta
+public class CanvasColumnar implements Canvas {
+    private static final int MIN_COMPACT = 1024;
+
+    private final Storage storage;
+    private final InputWriter writer;
+    private final UuidIndex index = new UuidIndex();
+    private ShapeColumns rows;
+    private int removed;
+    //numero de orden de la ultima alta; es la posicion de las bajas para deshacerlas
+    private long sequence;
+    private final AtomicReference<CompletableFuture<?>> lastIo = new AtomicReference<>(CanvasIo.DONE);
+
+    public CanvasColumnar(Storage storage, InputWriter writer, ObjectMapper mapper) {
+        this.storage = storage;
+        this.writer = writer;
+        this.rows = new ShapeColumns(ShapeLayout.fromMapper(mapper).values());
+    }
+
+    @Override
+    public synchronized void addShape(Shape shape) {
+        attachShape(shape);
+        storage.shapeAdded(shape);
+    }
+
+    @Override
+    public void listShapes() {
+        listShapes(writer);
+    }
+
+    @Override
+    public synchronized void listShapes(InputWriter out) {
+        if (index.size() > 0) {
+            live().forEach(out::println);
+        } else {
+            out.println("No existen figuras");
+        }
+    }
+
+    @Override
+    public synchronized Optional<Shape> findShape(UUID id) {
+        int row = index.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        return row == UuidIndex.ABSENT ? Optional.empty() : Optional.of(rows.view(row));
+    }
+
+    @Override
+    public synchronized List<Shape> getShapes() {
+        List<Shape> shapes = new ArrayList<>(index.size());
+        live().forEach(shapes::add);
+        return shapes;
+    }
+
+    @Override
+    public synchronized void replaceShapes(Collection<Shape> replacement, String attachedFile) {
+        swapShapes(replacement, attachedFile);
+    }
+
+    @Override
+    public String attachedFile() {
+        return storage.attached();
+    }
+
+    @Override
+    public synchronized Optional<RemovedShape> removeShape(UUID id) {
+        int row = index.remove(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (row == UuidIndex.ABSENT) {
+            return Optional.empty();
+        }
+        RemovedShape removedShape = new RemovedShape(rows.seq(row), rows.view(row));
+        rows.markRemoved(row);
+        removed++;
+        storage.shapeRemoved(removedShape.shape());
+        if (removed >= MIN_COMPACT && removed > rows.size() / 2) {
+            compact();
+        }
+        return Optional.of(removedShape);
+    }
+
+    @Override
+    public synchronized void moveShape(UUID id, double dx, double dy) {
+        int row = index.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (row == UuidIndex.ABSENT) {
+            return;
+        }
+        rows.move(row, dx, dy);
+        storage.shapeMoved(rows.view(row), dx, dy);
+    }
+
+    @Override
+    public synchronized List<UUID> moveShapes(Predicate<Shape> filter, double dx, double dy) {
+        List<UUID> moved = new ArrayList<>();
+        for (int row : select(filter)) {
+            rows.move(row, dx, dy);
+            Shape shape = rows.view(row);
+            storage.shapeMoved(shape, dx, dy);
+            moved.add(shape.getId());
+        }
+        return moved;
+    }
+
+    @Override
+    public synchronized List<UUID> moveShapes(Collection<UUID> ids, double dx, double dy) {
+        List<UUID> moved = new ArrayList<>();
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            int row = index.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (row != UuidIndex.ABSENT) {
+                rows.move(row, dx, dy);
+                storage.shapeMoved(rows.view(row), dx, dy);
+                moved.add(id);
+            }
+        }
+        return moved;
+    }
+
+    //La posicion es el numero de orden de la fila
+    @Override
+    public synchronized List<RemovedShape> removeShapes(Predicate<Shape> filter) {
+        int[] selected = select(filter);
+        List<RemovedShape> removedShapes = new ArrayList<>(selected.length);
+        for (int row : selected) {
+            RemovedShape removedShape = new RemovedShape(rows.seq(row), rows.view(row));
+            index.remove(rows.msb(row), rows.lsb(row));
+            rows.markRemoved(row);
+            removed++;
+            storage.shapeRemoved(removedShape.shape());
+            removedShapes.add(removedShape);
+        }
+        if (removed >= MIN_COMPACT && removed > rows.size() / 2) {
+            compact();
+        }
+        return removedShapes;
+    }
+
+    //Cada baja vuelve a su fila si sigue marcada; las que quito una compactacion no se pueden
+    //intercalar y se reescriben las columnas con ellas en su sitio
+    @Override
+    public synchronized void restoreShapes(List<RemovedShape> restored) {
+        List<RemovedShape> pending = new ArrayList<>();
+        Set<UUID> pendingIds = new HashSet<>();
+        for (RemovedShape entry : restored) {
+            UUID id = entry.shape().getId();
+            long msb = id.getMostSignificantBits();
+            long lsb = id.getLeastSignificantBits();
+            if (index.get(msb, lsb) != UuidIndex.ABSENT) {
+                continue;
+            }
+            int row = rows.rowOf(entry.position());
+            if (row >= 0 && rows.isRemoved(row) && rows.msb(row) == msb && rows.lsb(row) == lsb) {
+                rows.revive(row, entry.shape());
+                index.put(msb, lsb, row);
+                removed--;
+                storage.shapeAdded(entry.shape());
+            } else if (pendingIds.add(id)) {
+                pending.add(entry);
+            }
+        }
+        if (!pending.isEmpty()) {
+            rebuild(pending);
+        }
+    }
+
+    private void rebuild(List<RemovedShape> pending) {
+        pending.sort(Comparator.comparingLong(RemovedShape::position));
+        ShapeColumns current = rows.compact();
+        clearShapes();
+        int next = 0;
+        for (int row = 0; row < current.size(); row++) {
+            while (next < pending.size() && pending.get(next).position() < current.seq(row)) {
+                restoreShape(pending.get(next++));
+            }
+            attachShape(current.view(row), current.seq(row));
+        }
+        while (next < pending.size()) {
+            restoreShape(pending.get(next++));
+        }
+    }
+
+    @Override
+    public synchronized List<Shape> scaleShapes(Predicate<Shape> filter, double factor) {
+        List<Shape> previous = new ArrayList<>();
+        for (int row : select(filter)) {
+            Shape shape = rows.view(row);
+            previous.add(shape.copy());
+            shape.scale(factor);
+            rows.update(row, shape);
+            storage.shapeUpdated(shape);
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized void updateShapes(Collection<Shape> states) {
+        for (Shape state : states) {
+            UUID id = state.getId();
+            int row = index.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (row != UuidIndex.ABSENT) {
+                rows.update(row, state);
+                storage.shapeUpdated(rows.view(row));
+            }
+        }
+    }
+
+    private int[] select(Predicate<Shape> filter) {
+        return CanvasBulk.select(rows.size(), row -> !rows.isRemoved(row) && filter.test(rows.view(row)));
+    }
+
+    @Override
+    public synchronized ShapeStats stats() {
+        return rows.stats(rows.size() >= CanvasBulk.PARALLEL_THRESHOLD);
+    }
+
+    @Override
+    public synchronized List<Shape> findShapes(Predicate<Shape> filter, int offset, int limit) {
+        List<Shape> page = new ArrayList<>(Math.min(limit, index.size()));
+        int skipped = 0;
+        for (int row = 0; row < rows.size() && page.size() < limit; row++) {
+            if (rows.isRemoved(row)) {
+                continue;
+            }
+            Shape shape = rows.view(row);
+            if (filter.test(shape) && skipped++ >= offset) {
+                page.add(shape);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public synchronized List<Shape> findShapesAt(double x, double y) {
+        List<Shape> result = new ArrayList<>();
+        for (int row = 0; row < rows.size(); row++) {
+            if (!rows.isRemoved(row) && rows.contains(row, x, y)) {
+                result.add(rows.view(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized List<Shape> findShapesIn(double minX, double minY, double maxX, double maxY) {
+        Bounds area = Bounds.of(minX, minY, maxX, maxY);
+        List<Shape> result = new ArrayList<>();
+        for (int row = 0; row < rows.size(); row++) {
+            if (!rows.isRemoved(row) && rows.intersects(row, area)) {
+                result.add(rows.view(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void saveToJson(String filename) {
+        storage.saveEach(filename, live());
+    }
+
+    @Override
+    public synchronized void loadFromJson(String filename) {
+        swapShapes(storage.load(filename), filename);
+    }
+
+    //El snapshot es una copia de los arrays primitivos: no hace falta copy-on-write
+    @Override
+    public CompletableFuture<Integer> saveToJsonAsync(String filename, IntConsumer progress) {
+        List<Shape> snapshot;
+        synchronized (this) {
+            snapshot = rows.compact().asList();
+        }
+        return track(storage.saveAsync(filename, CanvasIo.withProgress(snapshot, progress), CanvasIo.EXECUTOR)
+                            .thenApply(ok -> snapshot.size()));
+    }
+
+    @Override
+    public synchronized CompletableFuture<Integer> loadFromJsonAsync(String filename) {
+        return track(storage.loadAsync(filename, CanvasIo.EXECUTOR)
+                            .thenApply(shapes -> {
+                                swapShapes(shapes, filename);
+                                return shapes.size();
+                            }));
+    }
+
+    @Override
+    public void awaitPendingIo() {
+        CanvasIo.awaitLast(lastIo);
+    }
+
+    private <T> CompletableFuture<T> track(CompletableFuture<T> io) {
+        lastIo.set(io);
+        return io;
+    }
+
+    private synchronized void swapShapes(Collection<Shape> loaded, String filename) {
+        clearShapes();
+        loaded.forEach(this::attachShape);
+        storage.attach(filename);
+    }
+
+    private void restoreShape(RemovedShape entry) {
+        attachShape(entry.shape(), entry.position());
+        storage.shapeAdded(entry.shape());
+    }
+
+    private void attachShape(Shape shape) {
+        attachShape(shape, ++sequence);
+    }
+
+    private void attachShape(Shape shape, long seq) {
+        UUID id = shape.getId();
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int previous = index.get(msb, lsb);
+        if (previous != UuidIndex.ABSENT) {
+            rows.markRemoved(previous);
+            removed++;
+        }
+        index.put(msb, lsb, rows.append(shape, seq));
+    }
+
+    private void clearShapes() {
+        rows.clear();
+        index.clear();
+        removed = 0;
+    }
+
+    private void compact() {
+        rows = rows.compact();
+        index.clear();
+        for (int row = 0; row < rows.size(); row++) {
+            index.put(rows.msb(row), rows.lsb(row), row);
+        }
+        removed = 0;
+    }
+
+    private Iterable<Shape> live() {
+        return () -> new Iterator<>() {
+            private int row = skipRemoved(0);
+
+            @Override
+            public boolean hasNext() {
+                return row < rows.size();
+            }
+
+            @Override
+            public Shape next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Shape shape = rows.view(row);
+                row = skipRemoved(row + 1);
+                return shape;
+            }
+        };
+    }
+
+    private int skipRemoved(int row) {
+        while (row < rows.size() && rows.isRemoved(row)) {
+            row++;
+        }
+        return row;
+    }
+}
@@ -0,0 +1,498 @@
+package com.example.paint.canvas;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+import com.example.paint.core.InputWriter;
+import com.example.paint.shapes.Bounds;
+import com.example.paint.shapes.Shape;
+import com.example.paint.storage.Storage;
+
+/*
+ * Canvas para varios editores a la vez. Las figuras publicadas no se modifican nunca:
+ * mover crea una copia y la publica en un ConcurrentHashMap por id. Las escrituras solo
+ * bloquean el stripe de su id, asi que altas y movimientos de ids distintos van en paralelo.
+ * Un snapshot (listar/guardar) bloquea todos los stripes un instante para cerrar una epoca;
+ * mientras siga abierto, las escrituras conservan la version anterior para el, de modo que
+ * se recorre sin parar a los escritores.
+ */
+public class CanvasConcurrent implements Canvas {
+    private static final int STRIPES = 64;
+
+    //shape == null es una baja que algun snapshot todavia debe ver como viva
+    private record Version(long seq, Shape shape, long epoch, Version previous) {
+        Version visibleAt(long snapshot) {
+            Version version = this;
+            while (version != null && version.epoch > snapshot) {
+                version = version.previous;
+            }
+            return version;
+        }
+    }
+
+    private final Storage storage;
+    private final InputWriter writer;
+    private final ConcurrentHashMap<UUID, Version> shapes = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    //orden de alta para listar y guardar como los demas canvas
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger activeSnapshots = new AtomicInteger();
+    //hay versiones antiguas o bajas que limpiar al cerrar el ultimo snapshot
+    private volatile boolean retaining;
+    private volatile long epoch;
+    private final AtomicReference<CompletableFuture<?>> lastIo = new AtomicReference<>(CanvasIo.DONE);
+
+    public CanvasConcurrent(Storage storage, InputWriter writer) {
+        this.storage = storage;
+        this.writer = writer;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void addShape(Shape shape) {
+        Shape published = shape.copy();
+        UUID id = published.getId();
+        ReentrantLock lock = stripe(id);
+        lock.lock();
+        try {
+            Version current = shapes.get(id);
+            long seq = current != null && current.shape() != null ? current.seq() : sequence.incrementAndGet();
+            shapes.put(id, new Version(seq, published, epoch, retained(current)));
+            storage.shapeAdded(published);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void listShapes() {
+        listShapes(writer);
+    }
+
+    @Override
+    public void listShapes(InputWriter out) {
+        long snapshot = openSnapshot();
+        try {
+            var visible = read(snapshot);
+            if (visible.size() > 0) {
+                visible.forEach(out::println);
+            } else {
+                out.println("No existen figuras");
+            }
+        } finally {
+            closeSnapshot();
+        }
+    }
+
+    @Override
+    public Optional<Shape> findShape(UUID id) {
+        Version current = shapes.get(id);
+        return Optional.ofNullable(current == null ? null : current.shape());
+    }
+
+    @Override
+    public List<Shape> getShapes() {
+        long snapshot = openSnapshot();
+        try {
+            return read(snapshot);
+        } finally {
+            closeSnapshot();
+        }
+    }
+
+    @Override
+    public void replaceShapes(Collection<Shape> replacement, String attachedFile) {
+        lockAll();
+        try {
+            replaceAll(replacement);
+            storage.attach(attachedFile);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public String attachedFile() {
+        return storage.attached();
+    }
+
+    @Override
+    public Optional<RemovedShape> removeShape(UUID id) {
+        return remove(id, shape -> true).map(version -> new RemovedShape(version.seq(), version.shape()));
+    }
+
+    private Optional<Version> remove(UUID id, Predicate<Shape> filter) {
+        ReentrantLock lock = stripe(id);
+        lock.lock();
+        try {
+            Version current = shapes.get(id);
+            if (current == null || current.shape() == null || !filter.test(current.shape())) {
+                return Optional.empty();
+            }
+            if (activeSnapshots.get() > 0) {
+                retaining = true;
+                shapes.put(id, new Version(current.seq(), null, epoch, current));
+            } else {
+                shapes.remove(id);
+            }
+            storage.shapeRemoved(current.shape());
+            return Optional.of(current);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void moveShape(UUID id, double dx, double dy) {
+        update(id, shape -> true, shape -> {
+            shape.move(dx, dy);
+            storage.shapeMoved(shape, dx, dy);
+        });
+    }
+
+    //Las operaciones masivas no son atomicas frente a otros editores: cada figura se
+    //actualiza con el lock de su stripe y se vuelve a comprobar el filtro con su version actual
+    @Override
+    public List<UUID> moveShapes(Predicate<Shape> filter, double dx, double dy) {
+        List<UUID> moved = new ArrayList<>();
+        for (Shape candidate : candidates(filter)) {
+            if (update(candidate.getId(), filter, shape -> {
+                shape.move(dx, dy);
+                storage.shapeMoved(shape, dx, dy);
+            }) != null) {
+                moved.add(candidate.getId());
+            }
+        }
+        return moved;
+    }
+
+    @Override
+    public List<UUID> moveShapes(Collection<UUID> ids, double dx, double dy) {
+        List<UUID> moved = new ArrayList<>();
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            if (update(id, shape -> true, shape -> {
+                shape.move(dx, dy);
+                storage.shapeMoved(shape, dx, dy);
+            }) != null) {
+                moved.add(id);
+            }
+        }
+        return moved;
+    }
+
+    //La posicion es el numero de orden de la figura: al restaurarla vuelve a su sitio sin tocar las demas
+    @Override
+    public List<RemovedShape> removeShapes(Predicate<Shape> filter) {
+        List<Version> removed = new ArrayList<>();
+        for (Shape candidate : candidates(filter)) {
+            remove(candidate.getId(), filter).ifPresent(removed::add);
+        }
+        removed.sort(Comparator.comparingLong(Version::seq));
+        return removed.stream().map(version -> new RemovedShape(version.seq(), version.shape())).toList();
+    }
+
+    @Override
+    public void restoreShapes(List<RemovedShape> removed) {
+        for (RemovedShape entry : removed) {
+            Shape published = entry.shape().copy();
+            UUID id = published.getId();
+            ReentrantLock lock = stripe(id);
+            lock.lock();
+            try {
+                Version current = shapes.get(id);
+                if (current != null && current.shape() != null) {
+                    continue;
+                }
+                storage.shapeAdded(published);
+                shapes.put(id, new Version(entry.position(), published, epoch, retained(current)));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    //Las versiones publicadas no cambian nunca: la anterior ya es el estado de antes
+    @Override
+    public List<Shape> scaleShapes(Predicate<Shape> filter, double factor) {
+        List<Shape> previous = new ArrayList<>();
+        for (Shape candidate : candidates(filter)) {
+            Shape before = update(candidate.getId(), filter, shape -> {
+                shape.scale(factor);
+                storage.shapeUpdated(shape);
+            });
+            if (before != null) {
+                previous.add(before);
+            }
+        }
+        return previous;
+    }
+
+    @Override
+    public void updateShapes(Collection<Shape> states) {
+        for (Shape state : states) {
+            Shape published = state.copy();
+            UUID id = published.getId();
+            ReentrantLock lock = stripe(id);
+            lock.lock();
+            try {
+                Version current = shapes.get(id);
+                if (current == null || current.shape() == null) {
+                    continue;
+                }
+                storage.shapeUpdated(published);
+                shapes.put(id, new Version(current.seq(), published, epoch, retained(current)));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private List<Shape> candidates(Predicate<Shape> filter) {
+        List<Shape> live = new ArrayList<>(shapes.size());
+        for (Version version : shapes.values()) {
+            if (version.shape() != null) {
+                live.add(version.shape());
+            }
+        }
+        return CanvasBulk.select(live, filter);
+    }
+
+    //Publica una copia modificada de la figura si sigue existiendo y cumple el filtro; devuelve
+    //la version anterior o null. El cambio se aplica a la copia antes del put: los lectores sin lock nunca la ven a medias
+    private Shape update(UUID id, Predicate<Shape> filter, Consumer<Shape> change) {
+        ReentrantLock lock = stripe(id);
+        lock.lock();
+        try {
+            Version current = shapes.get(id);
+            if (current == null || current.shape() == null || !filter.test(current.shape())) {
+                return null;
+            }
+            Shape changed = current.shape().copy();
+            change.accept(changed);
+            shapes.put(id, new Version(current.seq(), changed, epoch, retained(current)));
+            return current.shape();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Como las busquedas, sobre el estado mas reciente de cada figura
+    @Override
+    public ShapeStats stats() {
+        var versions = shapes.size() >= CanvasBulk.PARALLEL_THRESHOLD
+                ? shapes.values().parallelStream()
+                : shapes.values().stream();
+        return versions.map(Version::shape)
+                       .filter(Objects::nonNull)
+                       .collect(StatsAccumulator::new, StatsAccumulator::add, StatsAccumulator::combine)
+                       .result();
+    }
+
+    //Las busquedas ven el estado mas reciente de cada figura, sin snapshot
+    @Override
+    public List<Shape> findShapesAt(double x, double y) {
+        List<Shape> result = new ArrayList<>();
+        for (Version version : shapes.values()) {
+            if (version.shape() != null && version.shape().contains(x, y)) {
+                result.add(version.shape());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Shape> findShapesIn(double minX, double minY, double maxX, double maxY) {
+        Bounds area = Bounds.of(minX, minY, maxX, maxY);
+        List<Shape> result = new ArrayList<>();
+        for (Version version : shapes.values()) {
+            if (version.shape() != null && version.shape().intersects(area)) {
+                result.add(version.shape());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void saveToJson(String filename) {
+        long snapshot = openSnapshot();
+        try {
+            storage.saveEach(filename, read(snapshot));
+        } finally {
+            closeSnapshot();
+        }
+    }
+
+    @Override
+    public void loadFromJson(String filename) {
+        lockAll();
+        try {
+            replaceAll(storage.load(filename));
+            storage.attach(filename);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> saveToJsonAsync(String filename, IntConsumer progress) {
+        long snapshot = openSnapshot();
+        List<Shape> visible;
+        try {
+            visible = read(snapshot);
+        } finally {
+            closeSnapshot();
+        }
+        return track(storage.saveAsync(filename, CanvasIo.withProgress(visible, progress), CanvasIo.EXECUTOR)
+                            .thenApply(ok -> visible.size()));
+    }
+
+    //Con todos los stripes: si el Storage carga en este mismo hilo, nadie escribe entre la lectura y el cambio
+    @Override
+    public CompletableFuture<Integer> loadFromJsonAsync(String filename) {
+        lockAll();
+        try {
+            return track(storage.loadAsync(filename, CanvasIo.EXECUTOR)
+                                .thenApply(loaded -> {
+                                    lockAll();
+                                    try {
+                                        replaceAll(loaded);
+                                        storage.attach(filename);
+                                    } finally {
+                                        unlockAll();
+                                    }
+                                    return loaded.size();
+                                }));
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void awaitPendingIo() {
+        CanvasIo.awaitLast(lastIo);
+    }
+
+    private <T> CompletableFuture<T> track(CompletableFuture<T> io) {
+        lastIo.set(io);
+        return io;
+    }
+
+    private void replaceAll(Collection<Shape> loaded) {
+        lockAll();
+        try {
+            boolean keep = activeSnapshots.get() > 0;
+            for (var entry : shapes.entrySet()) {
+                Version current = entry.getValue();
+                if (keep && current.shape() != null) {
+                    retaining = true;
+                    entry.setValue(new Version(current.seq(), null, epoch, current));
+                } else if (!keep) {
+                    shapes.remove(entry.getKey());
+                }
+            }
+            for (Shape shape : loaded) {
+                Shape published = shape.copy();
+                Version current = shapes.get(published.getId());
+                shapes.put(published.getId(), new Version(sequence.incrementAndGet(), published, epoch, retained(current)));
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private Version retained(Version current) {
+        if (current == null || activeSnapshots.get() == 0) {
+            return null;
+        }
+        retaining = true;
+        return current;
+    }
+
+    private long openSnapshot() {
+        lockAll();
+        try {
+            activeSnapshots.incrementAndGet();
+            return epoch++;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private List<Shape> read(long snapshot) {
+        List<Version> visible = new ArrayList<>(shapes.size());
+        for (Version head : shapes.values()) {
+            Version version = head.visibleAt(snapshot);
+            if (version != null && version.shape() != null) {
+                visible.add(version);
+            }
+        }
+        visible.sort(Comparator.comparingLong(Version::seq));
+        List<Shape> result = new ArrayList<>(visible.size());
+        visible.forEach(version -> result.add(version.shape()));
+        return result;
+    }
+
+    //Cuando no queda ningun snapshot se descartan las versiones antiguas y las bajas
+    private void closeSnapshot() {
+        if (activeSnapshots.decrementAndGet() > 0 || !retaining) {
+            return;
+        }
+        retaining = false;
+        for (UUID id : shapes.keySet()) {
+            ReentrantLock lock = stripe(id);
+            lock.lock();
+            try {
+                if (activeSnapshots.get() > 0) {
+                    //el snapshot nuevo limpiara al cerrarse
+                    retaining = true;
+                    return;
+                }
+                Version head = shapes.get(id);
+                if (head == null || head.previous() == null && head.shape() != null) {
+                    continue;
+                }
+                if (head.shape() == null) {
+                    shapes.remove(id);
+                } else {
+                    shapes.put(id, new Version(head.seq(), head.shape(), head.epoch(), null));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private ReentrantLock stripe(UUID id) {
+        int h = id.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : stripes) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+}
@@ -1,65 +1,119 @@
 package com.example.paint.canvas;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import com.example.paint.core.InputWriter;
 import com.example.paint.shapes.Shape;
 import com.example.paint.storage.Storage;
 
-public class CanvasImplementation implements Canvas {
+public class CanvasImplementation extends CanvasAbstract {
 
     private final List<Shape> shapes = new ArrayList<>();
-    private final Storage storage;
-    private final InputWriter writer;
+    //posicion de cada instancia para replaceShape; se crea al primer reemplazo (con un guardado
+    //en curso una edicion masiva sustituye muchas) y se descarta cuando un borrado desplaza la lista
+    private Map<Shape, Integer> positions;
 
     public CanvasImplementation(Storage storage, InputWriter writer) {
-        this.storage = storage;
-        this.writer = writer;
+        super(storage, writer);
     }
 
     @Override
-    public void addShape(Shape shape) {
+    protected void insertShape(Shape shape) {
         shapes.add(shape);
+        if (positions != null) {
+            positions.put(shape, shapes.size() - 1);
+        }
     }
 
     @Override
-    public void listShapes() {
-        if (shapes.size()>0){
-            shapes.forEach(writer::println);
-        }
-        else{
-            writer.println("No existen figuras");
-        }
-        
+    protected Collection<Shape> shapes() {
+        return shapes;
     }
 
     @Override
-    public void removeShape(UUID id) {
-        findShapeById(id).ifPresent(shapes::remove);
+    protected Optional<Shape> findShapeById(UUID id) {
+        return shapes.stream()
+                     .filter(s -> s.getId().equals(id))
+                     .findFirst();
     }
 
+    //Sin indice por id: una pasada con el filtro en lugar de una busqueda por id
     @Override
-    public void moveShape(UUID id, double dx, double dy) {
-        findShapeById(id).ifPresent(shape -> shape.move(dx, dy));
+    public synchronized List<UUID> moveShapes(Collection<UUID> ids, double dx, double dy) {
+        return moveShapes(ShapeFilters.withIds(ids), dx, dy);
     }
 
     @Override
-    public void saveToJson(String filename) {
-        storage.save(filename, shapes);
+    protected void replaceShape(Shape current, Shape replacement) {
+        if (positions == null) {
+            positions = new IdentityHashMap<>();
+            for (int i = 0; i < shapes.size(); i++) {
+                positions.put(shapes.get(i), i);
+            }
+        }
+        Integer position = positions.remove(current);
+        if (position != null) {
+            shapes.set(position, replacement);
+            positions.put(replacement, position);
+        }
     }
 
+    //La posicion es el indice en la lista antes de borrar; una sola pasada para todas las bajas
     @Override
-    public void loadFromJson(String filename) {
+    protected List<RemovedShape> deleteShapes(List<Shape> selected) {
+        List<RemovedShape> removed = new ArrayList<>(selected.size());
+        for (int position = 0; position < shapes.size() && removed.size() < selected.size(); position++) {
+            Shape shape = shapes.get(position);
+            if (shape == selected.get(removed.size())) {
+                removed.add(new RemovedShape(position, shape));
+            }
+        }
+        Set<Shape> identities = Collections.newSetFromMap(new IdentityHashMap<>());
+        identities.addAll(selected);
+        shapes.removeIf(identities::contains);
+        positions = null;
+        return removed;
+    }
+
+    //Se reconstruye la lista intercalando las bajas: O(n), como cualquier insercion en medio de un ArrayList
+    @Override
+    protected List<Shape> reinsertShapes(List<RemovedShape> removed) {
+        Set<UUID> live = new HashSet<>();
+        shapes.forEach(shape -> live.add(shape.getId()));
+        List<RemovedShape> pending = removed.stream()
+                                            .filter(entry -> live.add(entry.shape().getId()))
+                                            .sorted(Comparator.comparingLong(RemovedShape::position))
+                                            .toList();
+        List<Shape> merged = new ArrayList<>(shapes.size() + pending.size());
+        int next = 0;
+        for (Shape shape : shapes) {
+            while (next < pending.size() && pending.get(next).position() <= merged.size()) {
+                merged.add(pending.get(next++).shape());
+            }
+            merged.add(shape);
+        }
+        while (next < pending.size()) {
+            merged.add(pending.get(next++).shape());
+        }
         shapes.clear();
-        shapes.addAll(storage.load(filename));
+        shapes.addAll(merged);
+        positions = null;
+        return pending.stream().map(RemovedShape::shape).toList();
     }
 
-    private Optional<Shape> findShapeById(UUID id) {
-        return shapes.stream()
-                     .filter(s -> s.getId().equals(id))
-                     .findFirst();
+    @Override
+    protected void clearShapes() {
+        shapes.clear();
+        positions = null;
     }
 }
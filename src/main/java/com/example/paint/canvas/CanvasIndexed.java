@@ -0,0 +1,183 @@
+package com.example.paint.canvas;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import com.example.paint.core.InputWriter;
+import com.example.paint.shapes.Shape;
+import com.example.paint.storage.Storage;
+
+//LinkedHashMap: orden de insercion para listar/guardar y acceso O(1) por id. Una baja deja
+//la entrada marcada con su numero de orden, asi deshacerla la vuelve a poner en su sitio en O(1);
+//las marcas se quitan cuando superan la mitad de las entradas
+public class CanvasIndexed extends CanvasAbstract {
+    private static final int MIN_COMPACT = 1024;
+
+    //shape == null es una baja que conserva su sitio
+    private record Entry(long seq, Shape shape) {
+    }
+
+    private final Map<UUID, Entry> shapes = new LinkedHashMap<>();
+    private final Collection<Shape> live = new AbstractCollection<>() {
+        @Override
+        public Iterator<Shape> iterator() {
+            Iterator<Entry> entries = shapes.values().iterator();
+            return new Iterator<>() {
+                private Shape next = advance();
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Shape next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    Shape shape = next;
+                    next = advance();
+                    return shape;
+                }
+
+                private Shape advance() {
+                    while (entries.hasNext()) {
+                        Shape shape = entries.next().shape();
+                        if (shape != null) {
+                            return shape;
+                        }
+                    }
+                    return null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return shapes.size() - removed;
+        }
+    };
+    private long sequence;
+    private int removed;
+
+    public CanvasIndexed(Storage storage, InputWriter writer) {
+        super(storage, writer);
+    }
+
+    //Un id que ya esta conserva su sitio; uno dado de baja vuelve al final, como un alta nueva
+    @Override
+    protected void insertShape(Shape shape) {
+        UUID id = shape.getId();
+        Entry current = shapes.get(id);
+        if (current != null && current.shape() != null) {
+            shapes.put(id, new Entry(current.seq(), shape));
+            return;
+        }
+        if (current != null) {
+            shapes.remove(id);
+            removed--;
+        }
+        shapes.put(id, new Entry(++sequence, shape));
+    }
+
+    @Override
+    protected Collection<Shape> shapes() {
+        return live;
+    }
+
+    @Override
+    protected Optional<Shape> findShapeById(UUID id) {
+        Entry entry = shapes.get(id);
+        return Optional.ofNullable(entry == null ? null : entry.shape());
+    }
+
+    @Override
+    protected void replaceShape(Shape current, Shape replacement) {
+        Entry entry = shapes.get(current.getId());
+        shapes.put(current.getId(), new Entry(entry.seq(), replacement));
+    }
+
+    //La posicion es el numero de orden de la figura
+    @Override
+    protected List<RemovedShape> deleteShapes(List<Shape> selected) {
+        List<RemovedShape> removedShapes = new ArrayList<>(selected.size());
+        for (Shape shape : selected) {
+            Entry entry = shapes.get(shape.getId());
+            shapes.put(shape.getId(), new Entry(entry.seq(), null));
+            removed++;
+            removedShapes.add(new RemovedShape(entry.seq(), shape));
+        }
+        if (removed >= MIN_COMPACT && removed > shapes.size() / 2) {
+            shapes.values().removeIf(entry -> entry.shape() == null);
+            removed = 0;
+        }
+        return removedShapes;
+    }
+
+    //Cada baja vuelve a su entrada marcada; si ya no esta (se compacto) se reconstruye el mapa por numero de orden
+    @Override
+    protected List<Shape> reinsertShapes(List<RemovedShape> restored) {
+        List<Shape> reinserted = new ArrayList<>(restored.size());
+        List<RemovedShape> pending = new ArrayList<>();
+        Set<UUID> pendingIds = new HashSet<>();
+        for (RemovedShape entry : restored) {
+            UUID id = entry.shape().getId();
+            Entry current = shapes.get(id);
+            if (current != null && current.shape() != null) {
+                continue;
+            }
+            if (current != null && current.seq() == entry.position()) {
+                shapes.put(id, new Entry(entry.position(), entry.shape()));
+                removed--;
+                reinserted.add(entry.shape());
+            } else if (pendingIds.add(id)) {
+                pending.add(entry);
+            }
+        }
+        if (!pending.isEmpty()) {
+            rebuild(pending);
+            pending.forEach(entry -> reinserted.add(entry.shape()));
+        }
+        return reinserted;
+    }
+
+    private void rebuild(List<RemovedShape> pending) {
+        pending.sort(Comparator.comparingLong(RemovedShape::position));
+        List<Entry> current = new ArrayList<>(shapes.values());
+        clearShapes();
+        int next = 0;
+        for (Entry entry : current) {
+            if (entry.shape() == null) {
+                continue;
+            }
+            while (next < pending.size() && pending.get(next).position() < entry.seq()) {
+                put(pending.get(next++));
+            }
+            shapes.put(entry.shape().getId(), entry);
+        }
+        while (next < pending.size()) {
+            put(pending.get(next++));
+        }
+    }
+
+    private void put(RemovedShape entry) {
+        shapes.put(entry.shape().getId(), new Entry(entry.position(), entry.shape()));
+    }
+
+    @Override
+    protected void clearShapes() {
+        shapes.clear();
+        removed = 0;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.paint.canvas;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+import com.example.paint.shapes.Shape;
+
+final class CanvasIo {
+
+    //Un unico hilo de E/S: las operaciones asincronas terminan en el orden en que se piden.
+    //No es daemon para que la JVM espere a un guardado en curso al salir.
+    static final Executor EXECUTOR = createExecutor();
+    static final CompletableFuture<?> DONE = CompletableFuture.completedFuture(null);
+
+    private CanvasIo() {
+    }
+
+    static Iterable<Shape> withProgress(List<Shape> shapes, IntConsumer progress) {
+        int total = shapes.size();
+        int step = Math.max(1, total / 4);
+        return () -> new Iterator<>() {
+            private int written;
+
+            @Override
+            public boolean hasNext() {
+                return written < total;
+            }
+
+            @Override
+            public Shape next() {
+                Shape shape = shapes.get(written++);
+                if (written % step == 0 && written < total) {
+                    progress.accept((int) (100L * written / total));
+                }
+                return shape;
+            }
+        };
+    }
+
+    //Espera a la ultima operacion registrada y lanza su fallo una sola vez: la siguiente espera
+    //no vuelve a notificar el mismo. IllegalStateException y no la causa tal cual, que podria ser
+    //una UncheckedIOException y confundirse con un fallo de la consola o del socket
+    static void awaitLast(AtomicReference<CompletableFuture<?>> last) {
+        CompletableFuture<?> io = last.get();
+        try {
+            io.join();
+        } catch (CompletionException | CancellationException e) {
+            last.compareAndSet(io, DONE);
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+
+    private static Executor createExecutor() {
+        var executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "canvas-io");
+            thread.setDaemon(false);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
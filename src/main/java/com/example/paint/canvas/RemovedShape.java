@@ -0,0 +1,8 @@
+package com.example.paint.canvas;
+
+import com.example.paint.shapes.Shape;
+
+//Figura borrada y su posicion en el orden de alta (indice o numero de orden, segun el canvas),
+//para deshacer la baja en el mismo sitio. La posicion solo la entiende el canvas que la devolvio
+public record RemovedShape(long position, Shape shape) {
+}
@@ -0,0 +1,340 @@
+package com.example.paint.canvas;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import com.example.paint.shapes.Bounds;
+import com.example.paint.shapes.Circle;
+import com.example.paint.shapes.Rectangle;
+import com.example.paint.shapes.Shape;
+import com.example.paint.storage.ShapeLayout;
+
+//Una fila por figura repartida en arrays primitivos: el id en dos long, el numero de orden de alta
+//(creciente por filas), el tipo en un byte y los campos del constructor en columnas double
+//(0 = x, 1 = y, despues el resto en su orden).
+//Circulos y rectangulos se consultan sobre los arrays; otros tipos a traves de una vista
+final class ShapeColumns {
+    static final byte REMOVED = -1;
+    private static final byte CIRCLE = 0;
+    private static final byte RECTANGLE = 1;
+    private static final byte OTHER = 2;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ShapeLayout[] layouts;
+    //tipo -> campo del constructor -> columna
+    private final int[][] columnOf;
+    private final byte[] kinds;
+
+    private long[] msb;
+    private long[] lsb;
+    private long[] seqs;
+    private byte[] tags;
+    private final double[][] values;
+    private int size;
+
+    ShapeColumns(Collection<ShapeLayout> layouts) {
+        if (layouts.size() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Demasiados tipos de figura: " + layouts.size());
+        }
+        this.layouts = layouts.toArray(new ShapeLayout[0]);
+        this.columnOf = new int[this.layouts.length][];
+        this.kinds = new byte[this.layouts.length];
+        int width = 2;
+        for (int tag = 0; tag < this.layouts.length; tag++) {
+            ShapeLayout layout = this.layouts[tag];
+            int x = layout.indexOf("x");
+            int y = layout.indexOf("y");
+            int[] columns = new int[layout.size()];
+            int next = 2;
+            for (int field = 0; field < columns.length; field++) {
+                columns[field] = field == x ? 0 : field == y ? 1 : next++;
+            }
+            columnOf[tag] = columns;
+            width = Math.max(width, columns.length);
+            kinds[tag] = layout.getType() == Circle.class ? CIRCLE
+                    : layout.getType() == Rectangle.class ? RECTANGLE
+                    : OTHER;
+        }
+        this.values = new double[width][];
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private ShapeColumns(ShapeColumns schema, int capacity) {
+        this.layouts = schema.layouts;
+        this.columnOf = schema.columnOf;
+        this.kinds = schema.kinds;
+        this.values = new double[schema.values.length][];
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isRemoved(int row) {
+        return tags[row] == REMOVED;
+    }
+
+    long msb(int row) {
+        return msb[row];
+    }
+
+    long lsb(int row) {
+        return lsb[row];
+    }
+
+    long seq(int row) {
+        return seqs[row];
+    }
+
+    //Fila con ese numero de orden (borrada o no), o -1 si ya no esta
+    int rowOf(long seq) {
+        int row = Arrays.binarySearch(seqs, 0, size, seq);
+        return row >= 0 ? row : -1;
+    }
+
+    //El numero de orden debe ser mayor que el de la ultima fila
+    int append(Shape shape, long seq) {
+        byte tag = tagOf(shape);
+        if (size == tags.length) {
+            grow(size * 2);
+        }
+        int row = size++;
+        UUID id = shape.getId();
+        msb[row] = id.getMostSignificantBits();
+        lsb[row] = id.getLeastSignificantBits();
+        seqs[row] = seq;
+        tags[row] = tag;
+        ShapeLayout layout = layouts[tag];
+        int[] columns = columnOf[tag];
+        for (int field = 0; field < columns.length; field++) {
+            values[columns[field]][row] = layout.get(shape, field);
+        }
+        return row;
+    }
+
+    //Vuelve a escribir la fila con los campos de la figura (del mismo tipo)
+    void update(int row, Shape shape) {
+        byte tag = tags[row];
+        ShapeLayout layout = layouts[tag];
+        int[] columns = columnOf[tag];
+        for (int field = 0; field < columns.length; field++) {
+            values[columns[field]][row] = layout.get(shape, field);
+        }
+    }
+
+    void markRemoved(int row) {
+        tags[row] = REMOVED;
+    }
+
+    //Vuelve a dar de alta una fila borrada con los campos de la figura (del mismo id)
+    void revive(int row, Shape shape) {
+        tags[row] = tagOf(shape);
+        update(row, shape);
+    }
+
+    void move(int row, double dx, double dy) {
+        values[0][row] += dx;
+        values[1][row] += dy;
+    }
+
+    void clear() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    //Figura nueva con los valores de la fila; modificarla no cambia el canvas
+    Shape view(int row) {
+        byte tag = tags[row];
+        int[] columns = columnOf[tag];
+        double[] fields = new double[columns.length];
+        for (int field = 0; field < columns.length; field++) {
+            fields[field] = values[columns[field]][row];
+        }
+        return layouts[tag].create(new UUID(msb[row], lsb[row]), fields);
+    }
+
+    boolean contains(int row, double x, double y) {
+        return switch (kinds[tags[row]]) {
+            case CIRCLE -> {
+                double dx = x - values[0][row];
+                double dy = y - values[1][row];
+                double r = values[2][row];
+                yield dx * dx + dy * dy <= r * r;
+            }
+            case RECTANGLE -> {
+                double x1 = values[0][row];
+                double y1 = values[1][row];
+                double x2 = x1 + values[2][row];
+                double y2 = y1 + values[3][row];
+                yield x >= Math.min(x1, x2) && x <= Math.max(x1, x2)
+                        && y >= Math.min(y1, y2) && y <= Math.max(y1, y2);
+            }
+            default -> view(row).contains(x, y);
+        };
+    }
+
+    boolean intersects(int row, Bounds area) {
+        return switch (kinds[tags[row]]) {
+            case CIRCLE -> {
+                double cx = values[0][row];
+                double cy = values[1][row];
+                double r = values[2][row];
+                double dx = cx - Math.max(area.minX(), Math.min(cx, area.maxX()));
+                double dy = cy - Math.max(area.minY(), Math.min(cy, area.maxY()));
+                yield dx * dx + dy * dy <= r * r;
+            }
+            case RECTANGLE -> {
+                double x1 = values[0][row];
+                double y1 = values[1][row];
+                double x2 = x1 + values[2][row];
+                double y2 = y1 + values[3][row];
+                yield area.minX() <= Math.max(x1, x2) && area.maxX() >= Math.min(x1, x2)
+                        && area.minY() <= Math.max(y1, y2) && area.maxY() >= Math.min(y1, y2);
+            }
+            default -> view(row).intersects(area);
+        };
+    }
+
+    //Estadisticas sobre las columnas: area y caja de circulos y rectangulos sin crear vistas,
+    //acumuladas por tipo en arrays y convertidas a nombres solo al final
+    ShapeStats stats(boolean parallel) {
+        IntStream range = IntStream.range(0, size);
+        TypeTotals totals = (parallel ? range.parallel() : range)
+                .collect(TypeTotals::new, TypeTotals::add, TypeTotals::combine);
+        StatsAccumulator stats = new StatsAccumulator();
+        for (int tag = 0; tag < layouts.length; tag++) {
+            stats.add(StatsAccumulator.typeOf(layouts[tag].getType()), totals.count[tag], totals.area[tag],
+                    totals.minX[tag], totals.minY[tag], totals.maxX[tag], totals.maxY[tag]);
+        }
+        return stats.result();
+    }
+
+    private final class TypeTotals {
+        final long[] count = new long[layouts.length];
+        final double[] area = new double[layouts.length];
+        final double[] minX = filled(Double.POSITIVE_INFINITY);
+        final double[] minY = filled(Double.POSITIVE_INFINITY);
+        final double[] maxX = filled(Double.NEGATIVE_INFINITY);
+        final double[] maxY = filled(Double.NEGATIVE_INFINITY);
+
+        void add(int row) {
+            byte tag = tags[row];
+            if (tag == REMOVED) {
+                return;
+            }
+            count[tag]++;
+            switch (kinds[tag]) {
+                case CIRCLE -> {
+                    double x = values[0][row];
+                    double y = values[1][row];
+                    double r = Math.abs(values[2][row]);
+                    area[tag] += Math.PI * r * r;
+                    extend(tag, x - r, y - r, x + r, y + r);
+                }
+                case RECTANGLE -> {
+                    double x = values[0][row];
+                    double y = values[1][row];
+                    double w = values[2][row];
+                    double h = values[3][row];
+                    area[tag] += w * h;
+                    extend(tag, Math.min(x, x + w), Math.min(y, y + h), Math.max(x, x + w), Math.max(y, y + h));
+                }
+                default -> {
+                    Shape shape = view(row);
+                    Bounds bounds = shape.bounds();
+                    area[tag] += shape.area();
+                    extend(tag, bounds.minX(), bounds.minY(), bounds.maxX(), bounds.maxY());
+                }
+            }
+        }
+
+        void combine(TypeTotals other) {
+            for (int tag = 0; tag < count.length; tag++) {
+                count[tag] += other.count[tag];
+                area[tag] += other.area[tag];
+                extend(tag, other.minX[tag], other.minY[tag], other.maxX[tag], other.maxY[tag]);
+            }
+        }
+
+        private void extend(int tag, double x1, double y1, double x2, double y2) {
+            minX[tag] = Math.min(minX[tag], x1);
+            minY[tag] = Math.min(minY[tag], y1);
+            maxX[tag] = Math.max(maxX[tag], x2);
+            maxY[tag] = Math.max(maxY[tag], y2);
+        }
+
+        private double[] filled(double value) {
+            double[] array = new double[layouts.length];
+            Arrays.fill(array, value);
+            return array;
+        }
+    }
+
+    //Copia solo con las filas vivas, en el mismo orden
+    ShapeColumns compact() {
+        ShapeColumns copy = new ShapeColumns(this, Math.max(INITIAL_CAPACITY, size));
+        for (int row = 0; row < size; row++) {
+            if (tags[row] == REMOVED) {
+                continue;
+            }
+            int target = copy.size++;
+            copy.msb[target] = msb[row];
+            copy.lsb[target] = lsb[row];
+            copy.seqs[target] = seqs[row];
+            copy.tags[target] = tags[row];
+            for (int column = 0; column < values.length; column++) {
+                copy.values[column][target] = values[column][row];
+            }
+        }
+        return copy;
+    }
+
+    //Vistas creadas al recorrerla; solo valida para columnas sin filas borradas (ver compact)
+    List<Shape> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Shape get(int index) {
+                return view(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private byte tagOf(Shape shape) {
+        for (byte tag = 0; tag < layouts.length; tag++) {
+            if (layouts[tag].getType() == shape.getClass()) {
+                return tag;
+            }
+        }
+        throw new IllegalArgumentException("Tipo de figura no registrado: " + shape.getClass().getName());
+    }
+
+    private void grow(int capacity) {
+        msb = Arrays.copyOf(msb, capacity);
+        lsb = Arrays.copyOf(lsb, capacity);
+        seqs = Arrays.copyOf(seqs, capacity);
+        tags = Arrays.copyOf(tags, capacity);
+        for (int column = 0; column < values.length; column++) {
+            values[column] = Arrays.copyOf(values[column], capacity);
+        }
+    }
+
+    private void allocate(int capacity) {
+        msb = new long[capacity];
+        lsb = new long[capacity];
+        seqs = new long[capacity];
+        tags = new byte[capacity];
+        for (int column = 0; column < values.length; column++) {
+            values[column] = new double[capacity];
+        }
+        size = 0;
+    }
+}
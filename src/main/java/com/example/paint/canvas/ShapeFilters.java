@@ -0,0 +1,35 @@
+package com.example.paint.canvas;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import com.example.paint.shapes.Bounds;
+import com.example.paint.shapes.Shape;
+
+//Criterios habituales para las operaciones masivas del canvas
+public final class ShapeFilters {
+    private ShapeFilters() {
+    }
+
+    public static Predicate<Shape> all() {
+        return shape -> true;
+    }
+
+    public static Predicate<Shape> inRegion(double minX, double minY, double maxX, double maxY) {
+        Bounds area = Bounds.of(minX, minY, maxX, maxY);
+        return shape -> shape.intersects(area);
+    }
+
+    //Por el nombre del tipo sin distinguir mayusculas: "circle", "rectangle"
+    public static Predicate<Shape> ofType(String type) {
+        return shape -> shape.getClass().getSimpleName().equalsIgnoreCase(type);
+    }
+
+    public static Predicate<Shape> withIds(Collection<UUID> ids) {
+        Set<UUID> set = new HashSet<>(ids);
+        return shape -> set.contains(shape.getId());
+    }
+}
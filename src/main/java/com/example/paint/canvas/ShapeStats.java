@@ -0,0 +1,13 @@
+package com.example.paint.canvas;
+
+import java.util.Map;
+
+import com.example.paint.shapes.Bounds;
+
+//Resumen de las figuras del canvas; bounds es null si no hay ninguna.
+//Los tipos son el nombre de la clase en minusculas, como en el JSON ("circle", "rectangle")
+public record ShapeStats(long count, double totalArea, Bounds bounds, Map<String, TypeStats> byType) {
+
+    public record TypeStats(long count, double area) {
+    }
+}
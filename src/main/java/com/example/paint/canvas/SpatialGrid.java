@@ -0,0 +1,180 @@
+package com.example.paint.canvas;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.paint.shapes.Bounds;
+import com.example.paint.shapes.Shape;
+
+//Rejilla uniforme: cada figura se registra en las celdas que cubre su bounding box
+class SpatialGrid {
+    private static final double DEFAULT_CELL_SIZE = 64;
+    private static final int MAX_CELLS_PER_SHAPE = 64;
+
+    private final double cellSize;
+    private final Map<Long, Set<Shape>> cells = new HashMap<>();
+    private final Map<Shape, Bounds> indexed = new IdentityHashMap<>();
+    //figuras demasiado grandes para repartirlas en celdas
+    private final Set<Shape> large = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    SpatialGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    SpatialGrid(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    void add(Shape shape) {
+        Bounds bounds = extent(shape);
+        indexed.put(shape, bounds);
+        link(shape, bounds);
+    }
+
+    void remove(Shape shape) {
+        Bounds bounds = indexed.remove(shape);
+        if (bounds != null) {
+            unlink(shape, bounds);
+        }
+    }
+
+    void update(Shape shape) {
+        Bounds previous = indexed.get(shape);
+        if (previous == null) {
+            return;
+        }
+        Bounds bounds = extent(shape);
+        indexed.put(shape, bounds);
+        if (!sameCells(previous, bounds)) {
+            unlink(shape, previous);
+            link(shape, bounds);
+        }
+    }
+
+    void clear() {
+        cells.clear();
+        indexed.clear();
+        large.clear();
+    }
+
+    List<Shape> findAt(double x, double y) {
+        List<Shape> result = new ArrayList<>();
+        var cell = cells.get(key(cell(x), cell(y)));
+        if (cell != null) {
+            for (Shape shape : cell) {
+                if (shape.contains(x, y)) {
+                    result.add(shape);
+                }
+            }
+        }
+        for (Shape shape : large) {
+            if (shape.contains(x, y)) {
+                result.add(shape);
+            }
+        }
+        return result;
+    }
+
+    List<Shape> findIn(Bounds area) {
+        List<Shape> result = new ArrayList<>();
+        int minCx = cell(area.minX()), minCy = cell(area.minY());
+        int maxCx = cell(area.maxX()), maxCy = cell(area.maxY());
+
+        long cellCount = ((long) maxCx - minCx + 1) * ((long) maxCy - minCy + 1);
+        if (cellCount > indexed.size()) {
+            //la consulta cubre mas celdas que figuras: es mas barato recorrerlas todas
+            indexed.forEach((shape, bounds) -> {
+                if (bounds.intersects(area) && shape.intersects(area)) {
+                    result.add(shape);
+                }
+            });
+            return result;
+        }
+
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cy = minCy; cy <= maxCy; cy++) {
+                var cell = cells.get(key(cx, cy));
+                if (cell == null) {
+                    continue;
+                }
+                for (Shape shape : cell) {
+                    Bounds bounds = indexed.get(shape);
+                    //una figura que ocupa varias celdas solo se reporta en la primera celda comun
+                    if (cx == Math.max(cell(bounds.minX()), minCx)
+                            && cy == Math.max(cell(bounds.minY()), minCy)
+                            && bounds.intersects(area) && shape.intersects(area)) {
+                        result.add(shape);
+                    }
+                }
+            }
+        }
+        for (Shape shape : large) {
+            if (shape.intersects(area)) {
+                result.add(shape);
+            }
+        }
+        return result;
+    }
+
+    //Una figura puede devolver los extremos invertidos (p.ej. medidas negativas): se recorren de menor a mayor
+    private static Bounds extent(Shape shape) {
+        Bounds bounds = shape.bounds();
+        return Bounds.of(bounds.minX(), bounds.minY(), bounds.maxX(), bounds.maxY());
+    }
+
+    private void link(Shape shape, Bounds bounds) {
+        if (isLarge(bounds)) {
+            large.add(shape);
+            return;
+        }
+        for (int cx = cell(bounds.minX()); cx <= cell(bounds.maxX()); cx++) {
+            for (int cy = cell(bounds.minY()); cy <= cell(bounds.maxY()); cy++) {
+                cells.computeIfAbsent(key(cx, cy), k -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                     .add(shape);
+            }
+        }
+    }
+
+    private void unlink(Shape shape, Bounds bounds) {
+        if (isLarge(bounds)) {
+            large.remove(shape);
+            return;
+        }
+        for (int cx = cell(bounds.minX()); cx <= cell(bounds.maxX()); cx++) {
+            for (int cy = cell(bounds.minY()); cy <= cell(bounds.maxY()); cy++) {
+                long key = key(cx, cy);
+                var cell = cells.get(key);
+                if (cell != null && cell.remove(shape) && cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+
+    private boolean sameCells(Bounds a, Bounds b) {
+        return cell(a.minX()) == cell(b.minX()) && cell(a.maxX()) == cell(b.maxX())
+                && cell(a.minY()) == cell(b.minY()) && cell(a.maxY()) == cell(b.maxY());
+    }
+
+    private boolean isLarge(Bounds bounds) {
+        long spanX = (long) cell(bounds.maxX()) - cell(bounds.minX()) + 1;
+        long spanY = (long) cell(bounds.maxY()) - cell(bounds.minY()) + 1;
+        return spanX * spanY > MAX_CELLS_PER_SHAPE;
+    }
+
+    private int cell(double coordinate) {
+        double c = Math.floor(coordinate / cellSize);
+        if (c >= Integer.MAX_VALUE) return Integer.MAX_VALUE - 1;
+        if (c <= Integer.MIN_VALUE) return Integer.MIN_VALUE + 1;
+        return (int) c;
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+}
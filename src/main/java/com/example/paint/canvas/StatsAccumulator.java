@@ -0,0 +1,66 @@
+package com.example.paint.canvas;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.example.paint.shapes.Bounds;
+import com.example.paint.shapes.Shape;
+
+//Acumulador mutable para collect(): uno por hilo y se combinan al final
+final class StatsAccumulator {
+    private final Map<String, double[]> byType = new HashMap<>();
+    private long count;
+    private double totalArea;
+    private double minX = Double.POSITIVE_INFINITY;
+    private double minY = Double.POSITIVE_INFINITY;
+    private double maxX = Double.NEGATIVE_INFINITY;
+    private double maxY = Double.NEGATIVE_INFINITY;
+
+    static String typeOf(Class<?> type) {
+        return type.getSimpleName().toLowerCase();
+    }
+
+    void add(Shape shape) {
+        Bounds bounds = shape.bounds();
+        add(typeOf(shape.getClass()), 1, shape.area(),
+                bounds.minX(), bounds.minY(), bounds.maxX(), bounds.maxY());
+    }
+
+    void add(String type, long shapes, double area, double minX, double minY, double maxX, double maxY) {
+        if (shapes == 0) {
+            return;
+        }
+        //[cuenta, area]
+        double[] totals = byType.computeIfAbsent(type, key -> new double[2]);
+        totals[0] += shapes;
+        totals[1] += area;
+        count += shapes;
+        totalArea += area;
+        this.minX = Math.min(this.minX, minX);
+        this.minY = Math.min(this.minY, minY);
+        this.maxX = Math.max(this.maxX, maxX);
+        this.maxY = Math.max(this.maxY, maxY);
+    }
+
+    void combine(StatsAccumulator other) {
+        other.byType.forEach((type, totals) -> {
+            double[] mine = byType.computeIfAbsent(type, key -> new double[2]);
+            mine[0] += totals[0];
+            mine[1] += totals[1];
+        });
+        count += other.count;
+        totalArea += other.totalArea;
+        minX = Math.min(minX, other.minX);
+        minY = Math.min(minY, other.minY);
+        maxX = Math.max(maxX, other.maxX);
+        maxY = Math.max(maxY, other.maxY);
+    }
+
+    ShapeStats result() {
+        Map<String, ShapeStats.TypeStats> types = new TreeMap<>();
+        byType.forEach((type, totals) -> types.put(type, new ShapeStats.TypeStats((long) totals[0], totals[1])));
+        Bounds bounds = count == 0 ? null : new Bounds(minX, minY, maxX, maxY);
+        return new ShapeStats(count, totalArea, bounds, types);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.paint.canvas;
+
+import java.util.Arrays;
+
+//Tabla hash abierta (sondeo lineal) de UUID a fila, con las dos mitades del id en arrays
+//primitivos: sin objetos UUID, Integer ni nodos de HashMap por figura
+final class UuidIndex {
+    static final int ABSENT = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] msb;
+    private long[] lsb;
+    private int[] rows;
+    private int mask;
+    private int size;
+
+    UuidIndex() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long mostSig, long leastSig) {
+        for (int i = slot(mostSig, leastSig); ; i = (i + 1) & mask) {
+            if (rows[i] == ABSENT) {
+                return ABSENT;
+            }
+            if (msb[i] == mostSig && lsb[i] == leastSig) {
+                return rows[i];
+            }
+        }
+    }
+
+    void put(long mostSig, long leastSig, int row) {
+        if ((size + 1) * 4L > rows.length * 3L) {
+            resize(rows.length * 2);
+        }
+        int i = slot(mostSig, leastSig);
+        while (rows[i] != ABSENT) {
+            if (msb[i] == mostSig && lsb[i] == leastSig) {
+                rows[i] = row;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        msb[i] = mostSig;
+        lsb[i] = leastSig;
+        rows[i] = row;
+        size++;
+    }
+
+    int remove(long mostSig, long leastSig) {
+        int i = slot(mostSig, leastSig);
+        while (rows[i] != ABSENT && (msb[i] != mostSig || lsb[i] != leastSig)) {
+            i = (i + 1) & mask;
+        }
+        int row = rows[i];
+        if (row == ABSENT) {
+            return ABSENT;
+        }
+        //se desplazan hacia atras las entradas siguientes en lugar de dejar lapidas
+        int gap = i;
+        for (int j = (i + 1) & mask; rows[j] != ABSENT; j = (j + 1) & mask) {
+            int home = slot(msb[j], lsb[j]);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                msb[gap] = msb[j];
+                lsb[gap] = lsb[j];
+                rows[gap] = rows[j];
+                gap = j;
+            }
+        }
+        rows[gap] = ABSENT;
+        size--;
+        return row;
+    }
+
+    void clear() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void resize(int capacity) {
+        long[] oldMsb = msb;
+        long[] oldLsb = lsb;
+        int[] oldRows = rows;
+        allocate(capacity);
+        for (int i = 0; i < oldRows.length; i++) {
+            if (oldRows[i] != ABSENT) {
+                put(oldMsb[i], oldLsb[i], oldRows[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        msb = new long[capacity];
+        lsb = new long[capacity];
+        rows = new int[capacity];
+        Arrays.fill(rows, ABSENT);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private int slot(long mostSig, long leastSig) {
+        long h = mostSig ^ (leastSig * 0x9E3779B97F4A7C15L);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
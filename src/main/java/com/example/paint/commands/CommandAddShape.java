@@ -1,13 +1,13 @@
 package com.example.paint.commands;
 
-import com.example.paint.canvas.CanvasAddShape;
+import com.example.paint.canvas.Canvas;
 import com.example.paint.shapes.Shape;
 
-public class CommandAddShape implements Command {
+public class CommandAddShape implements UndoableCommand {
 
-    private final CanvasAddShape reciever;
+    private final Canvas reciever;
     private final Shape shape;
-    public CommandAddShape(CanvasAddShape reciever, Shape shape) {
+    public CommandAddShape(Canvas reciever, Shape shape) {
         this.reciever = reciever;
         this.shape = shape;
     }
@@ -15,5 +15,10 @@ public class CommandAddShape implements Command {
     public void execute() {        
         reciever.addShape(shape);
     }
+
+    @Override
+    public void undo() {
+        reciever.removeShape(shape.getId());
+    }
     
 }
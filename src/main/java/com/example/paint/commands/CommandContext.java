@@ -13,11 +13,16 @@ public class CommandContext {
     private final InputReader scanner;
     private final Runnable onExit;
     private final InputWriter out;
+    private final CommandHistory history;
     public CommandContext(Canvas canvas, InputReader scanner, InputWriter out, Runnable onExit) {
+        this(canvas, scanner, out, onExit, new CommandHistory(CommandHistory.DEFAULT_CAPACITY));
+    }
+    public CommandContext(Canvas canvas, InputReader scanner, InputWriter out, Runnable onExit, CommandHistory history) {
         this.canvas = canvas;
         this.scanner = scanner;
         this.out = out;
         this.onExit = onExit;
+        this.history = history;
     
     }   
 }
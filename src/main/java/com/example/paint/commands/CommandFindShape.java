@@ -0,0 +1,28 @@
+package com.example.paint.commands;
+
+import com.example.paint.canvas.Canvas;
+import com.example.paint.core.InputWriter;
+
+public class CommandFindShape implements Command {
+    private final Canvas receiver;
+    private final InputWriter writer;
+    private final double x;
+    private final double y;
+
+    public CommandFindShape(Canvas receiver, InputWriter writer, double x, double y) {
+        this.receiver = receiver;
+        this.writer = writer;
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    public void execute() {
+        var shapes = receiver.findShapesAt(x, y);
+        if (shapes.isEmpty()) {
+            writer.println("No hay figuras en ese punto");
+        } else {
+            shapes.forEach(writer::println);
+        }
+    }
+}
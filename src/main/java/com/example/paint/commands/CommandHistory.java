@@ -0,0 +1,72 @@
+package com.example.paint.commands;
+
+//Buffer circular de comandos deshacibles: al llenarse se olvida el mas antiguo,
+//asi que la memoria queda acotada por la capacidad (una carga ocupa O(n), ver CommandLoad)
+public class CommandHistory {
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private final UndoableCommand[] entries;
+    //posicion siguiente al ultimo comando hecho
+    private int top;
+    private int undoable;
+    private int redoable;
+
+    public CommandHistory(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("La capacidad del historial no puede ser negativa");
+        }
+        this.entries = new UndoableCommand[capacity];
+    }
+
+    public void execute(Command command) {
+        command.execute();
+        if (command instanceof UndoableCommand undoableCommand) {
+            record(undoableCommand);
+        }
+    }
+
+    public boolean undo() {
+        if (undoable == 0) {
+            return false;
+        }
+        int previous = (top - 1 + entries.length) % entries.length;
+        entries[previous].undo();
+        top = previous;
+        undoable--;
+        redoable++;
+        return true;
+    }
+
+    public boolean redo() {
+        if (redoable == 0) {
+            return false;
+        }
+        entries[top].redo();
+        top = (top + 1) % entries.length;
+        redoable--;
+        undoable++;
+        return true;
+    }
+
+    public int getUndoable() {
+        return undoable;
+    }
+
+    public int getRedoable() {
+        return redoable;
+    }
+
+    private void record(UndoableCommand command) {
+        if (entries.length == 0) {
+            return;
+        }
+        entries[top] = command;
+        //un comando nuevo invalida lo que quedaba por rehacer
+        for (int i = 1; i < redoable; i++) {
+            entries[(top + i) % entries.length] = null;
+        }
+        top = (top + 1) % entries.length;
+        undoable = Math.min(undoable + 1, entries.length);
+        redoable = 0;
+    }
+}
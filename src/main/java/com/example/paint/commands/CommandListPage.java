@@ -0,0 +1,38 @@
+package com.example.paint.commands;
+
+import java.util.function.Predicate;
+
+import com.example.paint.canvas.Canvas;
+import com.example.paint.core.InputWriter;
+import com.example.paint.shapes.Shape;
+
+public class CommandListPage implements Command {
+    private final Canvas receiver;
+    private final InputWriter writer;
+    private final Predicate<Shape> filter;
+    private final int offset;
+    private final int limit;
+
+    public CommandListPage(Canvas receiver, InputWriter writer, Predicate<Shape> filter, int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Desde debe ser >= 0 y cuántas > 0");
+        }
+        this.receiver = receiver;
+        this.writer = writer;
+        this.filter = filter;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    @Override
+    public void execute() {
+        var page = receiver.findShapes(filter, offset, limit);
+        page.forEach(writer::println);
+        if (page.isEmpty()) {
+            writer.println("No hay figuras en esa página");
+        } else {
+            writer.printf("Figuras %d-%d%n", offset + 1, offset + page.size());
+        }
+        writer.flush();
+    }
+}
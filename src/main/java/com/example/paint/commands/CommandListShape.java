@@ -1,15 +1,18 @@
 package com.example.paint.commands;
 
 import com.example.paint.canvas.Canvas;
+import com.example.paint.core.InputWriter;
 
 public class CommandListShape implements Command{
     private final Canvas receiver;
+    private final InputWriter writer;
 
-    public CommandListShape(Canvas receiver) {
+    public CommandListShape(Canvas receiver, InputWriter writer) {
         this.receiver = receiver;
+        this.writer = writer;
     }
     @Override
     public void execute() {
-        receiver.listShapes();
+        receiver.listShapes(writer);
     }
 }
@@ -1,18 +1,77 @@
 package com.example.paint.commands;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import com.example.paint.canvas.Canvas;
+import com.example.paint.core.InputWriter;
+import com.example.paint.shapes.Shape;
 
-public class CommandLoad implements Command {
+//Deshacer y rehacer solo cambian las figuras en memoria y el fichero adjunto al Storage: el fichero
+//cargado no se reescribe. Cada carga en el historial guarda las figuras de antes y de despues
+//(referencias, O(n) por entrada y las de antes no se liberan): con lienzos grandes, --history pequeño
+public class CommandLoad implements UndoableCommand {
     private final Canvas receiver;
+    private final InputWriter writer;
     private final String filename;
+    //referencias a las figuras de antes y despues de cargar, no copias
+    private List<Shape> before;
+    private List<Shape> after;
+    //fichero adjunto al Storage antes y despues de cargar (null si ninguno)
+    private String beforeFile;
+    private String afterFile;
+    //la carga y el aviso de como termino; loaded se asigna dentro
+    private CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+    private volatile boolean loaded;
 
-    public CommandLoad(Canvas receiver, String filename) {
+    public CommandLoad(Canvas receiver, InputWriter writer, String filename) {
         this.receiver = receiver;
+        this.writer = writer;
         this.filename = filename;
     }
 
     @Override
     public void execute() {
-        receiver.loadFromJson(filename);
+        long start = System.nanoTime();
+        writer.println("Cargando " + filename + " en segundo plano...");
+        before = receiver.getShapes();
+        beforeFile = receiver.attachedFile();
+        pending = receiver.loadFromJsonAsync(filename)
+                .handle((count, error) -> {
+                    loaded = error == null;
+                    if (error != null) {
+                        writer.println("Error al cargar " + filename + ": " + messageOf(error));
+                    } else {
+                        writer.printf("Cargadas %d figuras de %s (%d ms)%n",
+                                count, filename, (System.nanoTime() - start) / 1_000_000);
+                    }
+                    //llega desde el hilo de E/S, fuera del ciclo de comandos que vuelca la salida
+                    writer.flush();
+                    return null;
+                });
+    }
+
+    @Override
+    public void undo() {
+        pending.join();
+        if (loaded) {
+            after = receiver.getShapes();
+            afterFile = receiver.attachedFile();
+            receiver.replaceShapes(before, beforeFile);
+        }
+    }
+
+    @Override
+    public void redo() {
+        if (loaded) {
+            receiver.replaceShapes(after, afterFile);
+        }
+    }
+
+    private static String messageOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null
+                ? error.getCause().getMessage()
+                : error.getMessage();
     }
 }
@@ -4,7 +4,7 @@ import java.util.UUID;
 
 import com.example.paint.canvas.Canvas;
 
-public class CommandMoveShape implements Command {
+public class CommandMoveShape implements UndoableCommand {
     private final Canvas receiver;
     private final UUID id;
     private final Double dx;
@@ -21,4 +21,9 @@ public class CommandMoveShape implements Command {
     public void execute() {
         receiver.moveShape(id, dx, dy);
     }
+
+    @Override
+    public void undo() {
+        receiver.moveShape(id, -dx, -dy);
+    }
 }
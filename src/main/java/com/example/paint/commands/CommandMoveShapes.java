@@ -0,0 +1,56 @@
+package com.example.paint.commands;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import com.example.paint.canvas.Canvas;
+import com.example.paint.core.InputWriter;
+import com.example.paint.shapes.Shape;
+
+public class CommandMoveShapes implements UndoableCommand {
+    private final Canvas receiver;
+    private final InputWriter writer;
+    private final Predicate<Shape> filter;
+    //con ids se mueve por busqueda directa en lugar de recorrer el canvas con el filtro
+    private final Collection<UUID> ids;
+    private final double dx;
+    private final double dy;
+    //se deshace sobre las mismas figuras aunque ya no cumplan el filtro
+    private List<UUID> moved = List.of();
+
+    public CommandMoveShapes(Canvas receiver, InputWriter writer, Predicate<Shape> filter, double dx, double dy) {
+        this.receiver = receiver;
+        this.writer = writer;
+        this.filter = filter;
+        this.ids = null;
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    public CommandMoveShapes(Canvas receiver, InputWriter writer, Collection<UUID> ids, double dx, double dy) {
+        this.receiver = receiver;
+        this.writer = writer;
+        this.filter = null;
+        this.ids = List.copyOf(ids);
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    @Override
+    public void execute() {
+        moved = ids != null ? receiver.moveShapes(ids, dx, dy) : receiver.moveShapes(filter, dx, dy);
+        writer.println("Movidas " + moved.size() + " figuras");
+    }
+
+    @Override
+    public void undo() {
+        receiver.moveShapes(moved, -dx, -dy);
+    }
+
+    @Override
+    public void redo() {
+        receiver.moveShapes(moved, dx, dy);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.paint.commands;
+
+import com.example.paint.core.InputWriter;
+
+public class CommandRedo implements Command {
+    private final CommandHistory history;
+    private final InputWriter writer;
+
+    public CommandRedo(CommandHistory history, InputWriter writer) {
+        this.history = history;
+        this.writer = writer;
+    }
+
+    @Override
+    public void execute() {
+        if (!history.redo()) {
+            writer.println("No hay nada que rehacer");
+        }
+    }
+}
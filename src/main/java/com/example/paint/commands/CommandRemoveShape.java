@@ -1,12 +1,17 @@
 package com.example.paint.commands;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import com.example.paint.canvas.Canvas;
+import com.example.paint.canvas.RemovedShape;
 
-public class CommandRemoveShape implements Command {
+public class CommandRemoveShape implements UndoableCommand {
     private final Canvas receiver;
     private UUID id;
+    //la figura borrada y su posicion, para volver a ponerla en su sitio
+    private Optional<RemovedShape> removed = Optional.empty();
 
     public CommandRemoveShape(Canvas receiver, UUID id) {
         this.receiver = receiver;
@@ -15,7 +20,12 @@ public class CommandRemoveShape implements Command {
 
     @Override
     public void execute() {
-        receiver.removeShape(id);
+        removed = receiver.removeShape(id);
+    }
+
+    @Override
+    public void undo() {
+        removed.ifPresent(entry -> receiver.restoreShapes(List.of(entry)));
     }
 
 }
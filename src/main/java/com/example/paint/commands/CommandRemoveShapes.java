@@ -0,0 +1,40 @@
+package com.example.paint.commands;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.example.paint.canvas.Canvas;
+import com.example.paint.canvas.RemovedShape;
+import com.example.paint.canvas.ShapeFilters;
+import com.example.paint.core.InputWriter;
+import com.example.paint.shapes.Shape;
+
+public class CommandRemoveShapes implements UndoableCommand {
+    private final Canvas receiver;
+    private final InputWriter writer;
+    private final Predicate<Shape> filter;
+    //las figuras borradas y sus posiciones, para volver a ponerlas en su sitio
+    private List<RemovedShape> removed = List.of();
+
+    public CommandRemoveShapes(Canvas receiver, InputWriter writer, Predicate<Shape> filter) {
+        this.receiver = receiver;
+        this.writer = writer;
+        this.filter = filter;
+    }
+
+    @Override
+    public void execute() {
+        removed = receiver.removeShapes(filter);
+        writer.println("Eliminadas " + removed.size() + " figuras");
+    }
+
+    @Override
+    public void undo() {
+        receiver.restoreShapes(removed);
+    }
+
+    @Override
+    public void redo() {
+        removed = receiver.removeShapes(ShapeFilters.withIds(removed.stream().map(entry -> entry.shape().getId()).toList()));
+    }
+}
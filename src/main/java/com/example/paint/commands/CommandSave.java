@@ -1,19 +1,42 @@
 package com.example.paint.commands;
 
+import java.util.concurrent.CompletionException;
+
 import com.example.paint.canvas.Canvas;
+import com.example.paint.core.InputWriter;
 
 public class CommandSave implements Command {
     private final Canvas receiver;
+    private final InputWriter writer;
     private final String filename;
 
-    public CommandSave(Canvas receiver, String filename) {
+    public CommandSave(Canvas receiver, InputWriter writer, String filename) {
         this.receiver = receiver;
+        this.writer = writer;
         this.filename = filename;
     }
 
     @Override
     public void execute() {
-        receiver.saveToJson(filename);
+        long start = System.nanoTime();
+        writer.println("Guardando " + filename + " en segundo plano...");
+        receiver.saveToJsonAsync(filename, percent -> writer.println("Guardando " + filename + ": " + percent + "%"))
+                .whenComplete((count, error) -> {
+                    if (error != null) {
+                        writer.println("Error al guardar " + filename + ": " + messageOf(error));
+                    } else {
+                        writer.printf("Guardadas %d figuras en %s (%d ms)%n",
+                                count, filename, (System.nanoTime() - start) / 1_000_000);
+                    }
+                    //llega desde el hilo de E/S, fuera del ciclo de comandos que vuelca la salida
+                    writer.flush();
+                });
+    }
+
+    private static String messageOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null
+                ? error.getCause().getMessage()
+                : error.getMessage();
     }
 
 }
@@ -0,0 +1,44 @@
+package com.example.paint.commands;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.example.paint.canvas.Canvas;
+import com.example.paint.canvas.ShapeFilters;
+import com.example.paint.core.InputWriter;
+import com.example.paint.shapes.Shape;
+
+public class CommandScaleShapes implements UndoableCommand {
+    private final Canvas receiver;
+    private final InputWriter writer;
+    private final Predicate<Shape> filter;
+    private final double factor;
+    //estado de cada figura antes de escalarla: deshacer lo restaura tal cual, sin dividir por el factor
+    private List<Shape> previous = List.of();
+
+    public CommandScaleShapes(Canvas receiver, InputWriter writer, Predicate<Shape> filter, double factor) {
+        if (!(factor > 0)) {
+            throw new IllegalArgumentException("El factor de escala debe ser positivo: " + factor);
+        }
+        this.receiver = receiver;
+        this.writer = writer;
+        this.filter = filter;
+        this.factor = factor;
+    }
+
+    @Override
+    public void execute() {
+        previous = receiver.scaleShapes(filter, factor);
+        writer.println("Escaladas " + previous.size() + " figuras");
+    }
+
+    @Override
+    public void undo() {
+        receiver.updateShapes(previous);
+    }
+
+    @Override
+    public void redo() {
+        previous = receiver.scaleShapes(ShapeFilters.withIds(previous.stream().map(Shape::getId).toList()), factor);
+    }
+}
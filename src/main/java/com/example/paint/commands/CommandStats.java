@@ -0,0 +1,30 @@
+package com.example.paint.commands;
+
+import com.example.paint.canvas.Canvas;
+import com.example.paint.canvas.ShapeStats;
+import com.example.paint.core.InputWriter;
+
+public class CommandStats implements Command {
+    private final Canvas receiver;
+    private final InputWriter writer;
+
+    public CommandStats(Canvas receiver, InputWriter writer) {
+        this.receiver = receiver;
+        this.writer = writer;
+    }
+
+    @Override
+    public void execute() {
+        ShapeStats stats = receiver.stats();
+        if (stats.count() == 0) {
+            writer.println("No existen figuras");
+            return;
+        }
+        var bounds = stats.bounds();
+        writer.printf("Figuras: %d, área total: %.2f%n", stats.count(), stats.totalArea());
+        writer.printf("Límites: (%.2f, %.2f) - (%.2f, %.2f)%n",
+                bounds.minX(), bounds.minY(), bounds.maxX(), bounds.maxY());
+        stats.byType().forEach((type, totals) ->
+                writer.printf("  %s: %d figuras, área %.2f%n", type, totals.count(), totals.area()));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.paint.commands;
+
+//Comando que guarda lo justo para deshacerse (el desplazamiento, la figura borrada...)
+public interface UndoableCommand extends Command {
+    void undo();
+
+    default void redo() {
+        execute();
+    }
+}
@@ -18,15 +18,18 @@ public class CommandFactoryAddShape implements CommandFactory {
     public Command create(CommandContext context) {
         InputReader scanner = context.getScanner();
         InputWriter writer = context.getOut();
-        writer.println("Figuras disponibles: " + ShapeRegistry.getAvailableShapes());
-        writer.print("Selecciona una figura: ");
+        writer.print("Figuras disponibles: " + ShapeRegistry.getAvailableShapes() + "\nSelecciona una figura: ");
         String tipo = scanner.nextLine();        
         var factory = ShapeRegistry.getFactory(tipo);
         if (factory == null) {
+            //en batch es un error de la linea, no un comando vacio que cuente como ejecutado
+            if (!scanner.isInteractive()) {
+                throw new IllegalArgumentException("Figura no encontrada: " + tipo);
+            }
             writer.println("Figura no encontrada.");
             return () -> {}; // Comando vacío
         }
-        Shape shape = factory.get();
+        Shape shape = factory.createFromInput(context);
         return new CommandAddShape(context.getCanvas(), shape);
     }
     
@@ -0,0 +1,25 @@
+package com.example.paint.commands.interfaces;
+
+
+import com.example.paint.commands.Command;
+import com.example.paint.commands.CommandContext;
+import com.example.paint.commands.CommandFindShape;
+import com.example.paint.core.InputReader;
+import com.example.paint.core.InputValidator;
+import com.example.paint.core.InputWriter;
+import com.example.paint.core.RegisterCommand;
+
+@RegisterCommand(value = "find", description = "Buscar figuras que contienen un punto")
+public class CommandFactoryFindShape implements CommandFactory {
+
+    @Override
+    public Command create(CommandContext context) {
+        InputReader scanner = context.getScanner();
+        InputWriter writer = context.getOut();
+
+        double x = InputValidator.readDouble(writer, scanner, "x: ");
+        double y = InputValidator.readDouble(writer, scanner, "y: ");
+
+        return new CommandFindShape(context.getCanvas(), writer, x, y);
+    }
+}
@@ -12,7 +12,7 @@ public class CommandFactoryList implements CommandFactory {
 
     @Override
     public Command create(CommandContext context) {
-        return new CommandListShape(context.getCanvas());
+        return new CommandListShape(context.getCanvas(), context.getOut());
     }
 }
 
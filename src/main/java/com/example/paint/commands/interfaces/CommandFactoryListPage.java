@@ -0,0 +1,28 @@
+package com.example.paint.commands.interfaces;
+
+
+import com.example.paint.canvas.ShapeFilters;
+import com.example.paint.commands.Command;
+import com.example.paint.commands.CommandContext;
+import com.example.paint.commands.CommandListPage;
+import com.example.paint.core.InputReader;
+import com.example.paint.core.InputValidator;
+import com.example.paint.core.InputWriter;
+import com.example.paint.core.RegisterCommand;
+
+@RegisterCommand(value = "list-page", description = "Listar una página de figuras, opcionalmente de un tipo")
+public class CommandFactoryListPage implements CommandFactory {
+
+    @Override
+    public Command create(CommandContext context) {
+        InputReader scanner = context.getScanner();
+        InputWriter writer = context.getOut();
+
+        int offset = InputValidator.readInt(writer, scanner, "Desde (0 = la primera): ");
+        int limit = InputValidator.readInt(writer, scanner, "Cuántas: ");
+        String type = InputValidator.readNonEmpty(scanner, writer, "Tipo de figura (* para todas): ").trim();
+
+        return new CommandListPage(context.getCanvas(), writer,
+                type.equals("*") ? ShapeFilters.all() : ShapeFilters.ofType(type), offset, limit);
+    }
+}
@@ -19,6 +19,6 @@ public class CommandFactoryLoad implements CommandFactory {
         writer.print("Introduce el nombre del archivo para cargar: ");
         String filename = scanner.nextLine();
 
-        return new CommandLoad(context.getCanvas(), filename);
+        return new CommandLoad(context.getCanvas(), writer, filename);
     }
 }
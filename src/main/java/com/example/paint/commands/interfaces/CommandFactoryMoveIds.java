@@ -0,0 +1,29 @@
+package com.example.paint.commands.interfaces;
+
+
+import java.util.List;
+import java.util.UUID;
+
+import com.example.paint.commands.Command;
+import com.example.paint.commands.CommandContext;
+import com.example.paint.commands.CommandMoveShapes;
+import com.example.paint.core.InputReader;
+import com.example.paint.core.InputValidator;
+import com.example.paint.core.InputWriter;
+import com.example.paint.core.RegisterCommand;
+
+@RegisterCommand(value = "move-ids", description = "Mover varias figuras por ID")
+public class CommandFactoryMoveIds implements CommandFactory {
+
+    @Override
+    public Command create(CommandContext context) {
+        InputReader scanner = context.getScanner();
+        InputWriter writer = context.getOut();
+
+        List<UUID> ids = InputValidator.readUUIDs(writer, scanner, "Introduce los IDs separados por comas: ");
+        double dx = InputValidator.readDouble(writer, scanner, "Introduce desplazamiento en X:");
+        double dy = InputValidator.readDouble(writer, scanner, "Introduce desplazamiento en Y:");
+
+        return new CommandMoveShapes(context.getCanvas(), writer, ids, dx, dy);
+    }
+}
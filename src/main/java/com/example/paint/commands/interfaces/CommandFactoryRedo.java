@@ -0,0 +1,16 @@
+package com.example.paint.commands.interfaces;
+
+import com.example.paint.commands.Command;
+import com.example.paint.commands.CommandContext;
+import com.example.paint.commands.CommandRedo;
+import com.example.paint.core.RegisterCommand;
+
+@RegisterCommand(value = "redo", description = "Rehacer el último cambio deshecho")
+public class CommandFactoryRedo implements CommandFactory {
+
+    @Override
+    public Command create(CommandContext context) {
+        return new CommandRedo(context.getHistory(), context.getOut());
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.example.paint.commands.interfaces;
+
+
+import com.example.paint.canvas.ShapeFilters;
+import com.example.paint.commands.Command;
+import com.example.paint.commands.CommandContext;
+import com.example.paint.commands.CommandRemoveShapes;
+import com.example.paint.core.InputReader;
+import com.example.paint.core.InputValidator;
+import com.example.paint.core.InputWriter;
+import com.example.paint.core.RegisterCommand;
+
+@RegisterCommand(value = "remove-region", description = "Eliminar las figuras que tocan un rectángulo")
+public class CommandFactoryRemoveRegion implements CommandFactory {
+
+    @Override
+    public Command create(CommandContext context) {
+        InputReader scanner = context.getScanner();
+        InputWriter writer = context.getOut();
+
+        double minX = InputValidator.readDouble(writer, scanner, "x mínima: ");
+        double minY = InputValidator.readDouble(writer, scanner, "y mínima: ");
+        double maxX = InputValidator.readDouble(writer, scanner, "x máxima: ");
+        double maxY = InputValidator.readDouble(writer, scanner, "y máxima: ");
+
+        return new CommandRemoveShapes(context.getCanvas(), writer, ShapeFilters.inRegion(minX, minY, maxX, maxY));
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.paint.commands.interfaces;
+
+
+import com.example.paint.canvas.ShapeFilters;
+import com.example.paint.commands.Command;
+import com.example.paint.commands.CommandContext;
+import com.example.paint.commands.CommandRemoveShapes;
+import com.example.paint.core.InputReader;
+import com.example.paint.core.InputValidator;
+import com.example.paint.core.InputWriter;
+import com.example.paint.core.RegisterCommand;
+
+@RegisterCommand(value = "remove-type", description = "Eliminar todas las figuras de un tipo")
+public class CommandFactoryRemoveType implements CommandFactory {
+
+    @Override
+    public Command create(CommandContext context) {
+        InputReader scanner = context.getScanner();
+        InputWriter writer = context.getOut();
+
+        String type = InputValidator.readNonEmpty(scanner, writer, "Tipo de figura (circle, rectangle...): ");
+
+        return new CommandRemoveShapes(context.getCanvas(), writer, ShapeFilters.ofType(type.trim()));
+    }
+}
@@ -19,6 +19,6 @@ public class CommandFactorySaveShape implements CommandFactory {
         writer.print("Introduce el nombre del archivo para guardar: ");
         String filename = scanner.nextLine();
 
-        return new CommandSave(context.getCanvas(), filename);
+        return new CommandSave(context.getCanvas(), writer, filename);
     }
 }
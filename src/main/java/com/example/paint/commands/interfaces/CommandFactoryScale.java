@@ -0,0 +1,25 @@
+package com.example.paint.commands.interfaces;
+
+
+import com.example.paint.canvas.ShapeFilters;
+import com.example.paint.commands.Command;
+import com.example.paint.commands.CommandContext;
+import com.example.paint.commands.CommandScaleShapes;
+import com.example.paint.core.InputReader;
+import com.example.paint.core.InputValidator;
+import com.example.paint.core.InputWriter;
+import com.example.paint.core.RegisterCommand;
+
+@RegisterCommand(value = "scale", description = "Escalar todas las figuras")
+public class CommandFactoryScale implements CommandFactory {
+
+    @Override
+    public Command create(CommandContext context) {
+        InputReader scanner = context.getScanner();
+        InputWriter writer = context.getOut();
+
+        double factor = InputValidator.readPositiveDouble(writer, scanner, "Factor de escala: ");
+
+        return new CommandScaleShapes(context.getCanvas(), writer, ShapeFilters.all(), factor);
+    }
+}
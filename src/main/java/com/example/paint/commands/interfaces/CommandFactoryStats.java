@@ -0,0 +1,16 @@
+package com.example.paint.commands.interfaces;
+
+
+import com.example.paint.commands.Command;
+import com.example.paint.commands.CommandContext;
+import com.example.paint.commands.CommandStats;
+import com.example.paint.core.RegisterCommand;
+
+@RegisterCommand(value = "stats", description = "Área total, límites y cuenta por tipo de figura")
+public class CommandFactoryStats implements CommandFactory {
+
+    @Override
+    public Command create(CommandContext context) {
+        return new CommandStats(context.getCanvas(), context.getOut());
+    }
+}
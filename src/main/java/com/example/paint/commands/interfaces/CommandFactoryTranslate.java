@@ -0,0 +1,26 @@
+package com.example.paint.commands.interfaces;
+
+
+import com.example.paint.canvas.ShapeFilters;
+import com.example.paint.commands.Command;
+import com.example.paint.commands.CommandContext;
+import com.example.paint.commands.CommandMoveShapes;
+import com.example.paint.core.InputReader;
+import com.example.paint.core.InputValidator;
+import com.example.paint.core.InputWriter;
+import com.example.paint.core.RegisterCommand;
+
+@RegisterCommand(value = "translate", description = "Mover todas las figuras")
+public class CommandFactoryTranslate implements CommandFactory {
+
+    @Override
+    public Command create(CommandContext context) {
+        InputReader scanner = context.getScanner();
+        InputWriter writer = context.getOut();
+
+        double dx = InputValidator.readDouble(writer, scanner, "Introduce desplazamiento en X:");
+        double dy = InputValidator.readDouble(writer, scanner, "Introduce desplazamiento en Y:");
+
+        return new CommandMoveShapes(context.getCanvas(), writer, ShapeFilters.all(), dx, dy);
+    }
+}
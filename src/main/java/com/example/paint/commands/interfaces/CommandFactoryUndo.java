@@ -0,0 +1,16 @@
+package com.example.paint.commands.interfaces;
+
+import com.example.paint.commands.Command;
+import com.example.paint.commands.CommandContext;
+import com.example.paint.commands.CommandUndo;
+import com.example.paint.core.RegisterCommand;
+
+@RegisterCommand(value = "undo", description = "Deshacer el último cambio")
+public class CommandFactoryUndo implements CommandFactory {
+
+    @Override
+    public Command create(CommandContext context) {
+        return new CommandUndo(context.getHistory(), context.getOut());
+    }
+
+}
@@ -1,6 +1,5 @@
 package com.example.paint.core;
 
-import org.reflections.Reflections;
 import com.example.paint.commands.interfaces.CommandFactory;
 
 import java.util.*;
@@ -19,8 +18,8 @@ public class CommandRegistry {
         }
     }
 
-    public static void registerCommands(Reflections reflections) {
-        Set<Class<?>> annotatedClasses = reflections.getTypesAnnotatedWith(RegisterCommand.class);
+    public static void registerCommands(ComponentIndex index) {
+        Set<Class<?>> annotatedClasses = index.getCommandFactories();
 
         for (Class<?> clazz : annotatedClasses) {
             if (!isValidCommandFactory(clazz)) continue;
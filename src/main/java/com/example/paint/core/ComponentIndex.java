@@ -0,0 +1,100 @@
+package com.example.paint.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.reflections.Reflections;
+
+import com.example.paint.shapes.Shape;
+
+//Clases anotadas y subtipos de Shape. Se leen del indice generado al compilar
+//(ComponentIndexProcessor) y solo si no existe se escanea el classpath con Reflections
+public final class ComponentIndex {
+    public static final String RESOURCE = "META-INF/paint/components.properties";
+
+    private static final Map<String, ComponentIndex> cache = new ConcurrentHashMap<>();
+
+    private final Set<Class<?>> shapeCreators;
+    private final Set<Class<?>> commandFactories;
+    private final Set<Class<? extends Shape>> shapeTypes;
+
+    private ComponentIndex(Set<Class<?>> shapeCreators, Set<Class<?>> commandFactories,
+            Set<Class<? extends Shape>> shapeTypes) {
+        this.shapeCreators = Collections.unmodifiableSet(shapeCreators);
+        this.commandFactories = Collections.unmodifiableSet(commandFactories);
+        this.shapeTypes = Collections.unmodifiableSet(shapeTypes);
+    }
+
+    public static ComponentIndex load(String packageName) {
+        return cache.computeIfAbsent(packageName, ComponentIndex::create);
+    }
+
+    public Set<Class<?>> getShapeCreators() {
+        return shapeCreators;
+    }
+
+    public Set<Class<?>> getCommandFactories() {
+        return commandFactories;
+    }
+
+    public Set<Class<? extends Shape>> getShapeTypes() {
+        return shapeTypes;
+    }
+
+    private static ComponentIndex create(String packageName) {
+        ClassLoader loader = ComponentIndex.class.getClassLoader();
+        try (InputStream in = loader.getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                Properties index = new Properties();
+                index.load(in);
+                return fromIndex(index, packageName, loader);
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Indice de componentes no valido, se escanea el classpath: " + e.getMessage());
+        }
+        return scan(packageName);
+    }
+
+    private static ComponentIndex fromIndex(Properties index, String packageName, ClassLoader loader)
+            throws ClassNotFoundException {
+        Set<Class<? extends Shape>> shapeTypes = new LinkedHashSet<>();
+        for (Class<?> clazz : classes(index, "shapeTypes", packageName, loader)) {
+            shapeTypes.add(clazz.asSubclass(Shape.class));
+        }
+        return new ComponentIndex(classes(index, "shapes", packageName, loader),
+                classes(index, "commands", packageName, loader), shapeTypes);
+    }
+
+    private static Set<Class<?>> classes(Properties index, String key, String packageName, ClassLoader loader)
+            throws ClassNotFoundException {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        String value = index.getProperty(key, "");
+        for (String name : value.isBlank() ? new String[0] : value.split(",")) {
+            if (name.startsWith(packageName + ".")) {
+                classes.add(Class.forName(name.trim(), false, loader));
+            }
+        }
+        return classes;
+    }
+
+    private static ComponentIndex scan(String packageName) {
+        Reflections reflections = new Reflections(packageName);
+        Set<Class<? extends Shape>> shapeTypes = new LinkedHashSet<>();
+        for (Class<? extends Shape> clazz : reflections.getSubTypesOf(Shape.class)) {
+            if (!clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers())) {
+                shapeTypes.add(clazz);
+            }
+        }
+        return new ComponentIndex(
+                new LinkedHashSet<>(reflections.getTypesAnnotatedWith(RegisterShape.class)),
+                new LinkedHashSet<>(reflections.getTypesAnnotatedWith(RegisterCommand.class)),
+                shapeTypes);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.paint.core;
+
+import java.util.UUID;
+
+//Formato de valores frecuentes directamente sobre un StringBuilder, sin Strings intermedios
+public final class FastText {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private FastText() {
+    }
+
+    //Mismo texto que UUID.toString(): 8-4-4-4-12 digitos hexadecimales en minusculas
+    public static StringBuilder appendUuid(StringBuilder out, UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        appendHex(out, msb >>> 32, 8).append('-');
+        appendHex(out, msb >>> 16, 4).append('-');
+        appendHex(out, msb, 4).append('-');
+        appendHex(out, lsb >>> 48, 4).append('-');
+        return appendHex(out, lsb, 12);
+    }
+
+    private static StringBuilder appendHex(StringBuilder out, long value, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            out.append(HEX[(int) (value >>> shift) & 0xF]);
+        }
+        return out;
+    }
+}
@@ -1,6 +1,32 @@
 package com.example.paint.core;
 
+import java.util.UUID;
+
 public interface InputReader {
     String nextLine();
+
+    //Una linea con un valor; NumberFormatException/IllegalArgumentException con la linea si no lo es
+    default double nextDouble() {
+        String entry = nextLine();
+        try {
+            return Double.parseDouble(entry);
+        } catch (NullPointerException | NumberFormatException e) {
+            throw new NumberFormatException(entry);
+        }
+    }
+
+    default UUID nextUUID() {
+        String entry = nextLine();
+        try {
+            return UUID.fromString(entry);
+        } catch (NullPointerException | IllegalArgumentException e) {
+            throw new IllegalArgumentException(entry);
+        }
+    }
     void close();
+
+    //false si las respuestas no las escribe una persona: un valor incorrecto no se vuelve a pedir
+    default boolean isInteractive() {
+        return true;
+    }
 }
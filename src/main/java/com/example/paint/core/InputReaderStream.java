@@ -0,0 +1,220 @@
+package com.example.paint.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+//Lee lineas directamente de un buffer de bytes (sin Scanner ni expresiones regulares).
+//nextDouble/nextUUID interpretan los bytes de la linea sin crear un String salvo en los casos raros
+public class InputReaderStream implements InputReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    //hasta 2^53 la mantisa es exacta y 10^22 es la mayor potencia de diez exacta en double
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private final InputStream in;
+    private final Charset charset;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    //bytes leidos y aun no consumidos: [start, end)
+    private int start;
+    private int end;
+    private boolean eof;
+    //ultima linea leida, sin el salto de linea
+    private int lineStart;
+    private int lineEnd;
+
+    public InputReaderStream(InputStream in, Charset charset) {
+        this.in = in;
+        this.charset = charset;
+    }
+
+    @Override
+    public String nextLine() {
+        readLine();
+        return new String(buffer, lineStart, lineEnd - lineStart, charset);
+    }
+
+    @Override
+    public double nextDouble() {
+        readLine();
+        int from = skipSpaces(lineStart, lineEnd);
+        int to = trimSpaces(from, lineEnd);
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i++] == '-';
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean fraction = false;
+        boolean exact = true;
+        for (; i < to; i++) {
+            byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                digits++;
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) {
+                    exponent--;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    exact = false;
+                    break;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (exact && digits > 0 && i < to && (buffer[i] == 'e' || buffer[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (buffer[i] == '-' || buffer[i] == '+')) {
+                negativeExponent = buffer[i++] == '-';
+            }
+            int value = 0;
+            int exponentDigits = 0;
+            //con mas de 3 digitos queda fuera del camino rapido de todas formas
+            for (; i < to && buffer[i] >= '0' && buffer[i] <= '9' && exponentDigits < 4; i++, exponentDigits++) {
+                value = value * 10 + (buffer[i] - '0');
+            }
+            exact = exponentDigits > 0 && exponentDigits < 4;
+            exponent += negativeExponent ? -value : value;
+        }
+        if (exact && digits > 0 && i == to && Math.abs(exponent) < POWERS_OF_TEN.length) {
+            double value = exponent >= 0
+                    ? mantissa * POWERS_OF_TEN[exponent]
+                    : mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+        //NaN, Infinity, hexadecimales, sufijos d/f o demasiados digitos: lo resuelve Double
+        String entry = new String(buffer, lineStart, lineEnd - lineStart, charset);
+        try {
+            return Double.parseDouble(entry);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException(entry);
+        }
+    }
+
+    @Override
+    public UUID nextUUID() {
+        readLine();
+        int from = skipSpaces(lineStart, lineEnd);
+        int to = trimSpaces(from, lineEnd);
+        if (to - from == 36 && isCanonicalUuid(from)) {
+            long msb = parseHex(from, 8, 0);
+            msb = parseHex(from + 9, 4, msb);
+            msb = parseHex(from + 14, 4, msb);
+            long lsb = parseHex(from + 19, 4, 0);
+            lsb = parseHex(from + 24, 12, lsb);
+            return new UUID(msb, lsb);
+        }
+        //formas abreviadas que admite UUID.fromString, o un valor que no es un UUID
+        String entry = new String(buffer, lineStart, lineEnd - lineStart, charset);
+        try {
+            return UUID.fromString(entry.strip());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(entry);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readLine() {
+        int scanned = start;
+        while (true) {
+            for (int i = scanned; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    setLine(start, i);
+                    start = i + 1;
+                    return;
+                }
+            }
+            if (eof) {
+                if (start == end) {
+                    throw new NoSuchElementException("No line found");
+                }
+                setLine(start, end);
+                start = end;
+                return;
+            }
+            scanned = fill();
+        }
+    }
+
+    private void setLine(int from, int to) {
+        lineStart = from;
+        lineEnd = to > from && buffer[to - 1] == '\r' ? to - 1 : to;
+    }
+
+    //Mueve lo pendiente al principio (o amplia el buffer si la linea no cabe) y lee mas;
+    //devuelve desde donde falta buscar el salto de linea
+    private int fill() {
+        int pending = end - start;
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, pending);
+        } else if (pending == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        start = 0;
+        end = pending;
+        try {
+            int read = in.read(buffer, end, buffer.length - end);
+            if (read < 0) {
+                eof = true;
+            } else {
+                end += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error leyendo la entrada", e);
+        }
+        return pending;
+    }
+
+    //Forma canonica 8-4-4-4-12 con guiones en su sitio y el resto hexadecimal
+    private boolean isCanonicalUuid(int from) {
+        for (int i = 0; i < 36; i++) {
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? buffer[from + i] != '-' : Character.digit(buffer[from + i], 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long parseHex(int from, int length, long value) {
+        for (int i = from; i < from + length; i++) {
+            value = (value << 4) | Character.digit(buffer[i], 16);
+        }
+        return value;
+    }
+
+    //Como String.trim: solo ASCII <= ' '; los bytes >= 0x80 (UTF-8 no ASCII) son negativos y no cuentan
+    private int skipSpaces(int from, int to) {
+        while (from < to && (buffer[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private int trimSpaces(int from, int to) {
+        while (to > from && (buffer[to - 1] & 0xFF) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.paint.core;
+
+import java.util.NoSuchElementException;
+
+//Entrega como respuestas los argumentos de una linea de comando ya escrita: "add circle 10 10 5"
+public class InputReaderTokens implements InputReader {
+    private String[] tokens = new String[0];
+    private int next;
+
+    public void feed(String arguments) {
+        String trimmed = arguments.strip();
+        tokens = trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+        next = 0;
+    }
+
+    public int remaining() {
+        return tokens.length - next;
+    }
+
+    @Override
+    public String nextLine() {
+        if (next >= tokens.length) {
+            throw new NoSuchElementException("Faltan argumentos");
+        }
+        return tokens[next++];
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.paint.core;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public final class InputValidator {
@@ -7,12 +9,37 @@ public final class InputValidator {
     }
 
     public static double readDouble(InputWriter writer, InputReader reader, String message) {
+        while (true) {
+            writer.print(message);
+            try {
+                return reader.nextDouble();
+            } catch (NumberFormatException e) {
+                rejectIfNotInteractive(reader, e.getMessage());
+                writer.println("El valor introducido no es correcto");
+            }
+        }
+    }
+
+    //Mayor que cero y finito; en modo batch otro valor es un error
+    public static double readPositiveDouble(InputWriter writer, InputReader reader, String message) {
+        while (true) {
+            double value = readDouble(writer, reader, message);
+            if (value > 0 && Double.isFinite(value)) {
+                return value;
+            }
+            rejectIfNotInteractive(reader, String.valueOf(value));
+            writer.println("El valor debe ser un número positivo");
+        }
+    }
+
+    public static int readInt(InputWriter writer, InputReader reader, String message) {
         while (true) {
             writer.print(message);
             var entry = reader.nextLine();
             try {
-                return Double.parseDouble(entry);
+                return Integer.parseInt(entry.trim());
             } catch (NullPointerException | NumberFormatException e) {
+                rejectIfNotInteractive(reader, entry);
                 writer.println("El valor introducido no es correcto");
             }
         }
@@ -21,10 +48,29 @@ public final class InputValidator {
     public static UUID readUUID(InputWriter writer, InputReader reader, String message) {
         while (true) {
             writer.print(message);
-            var entry = reader.nextLine();
             try {
-                return UUID.fromString(entry);
+                return reader.nextUUID();
+            } catch (IllegalArgumentException e) {
+                rejectIfNotInteractive(reader, e.getMessage());
+                writer.println("El valor introducido no es correcto");
+            }
+        }
+    }
+
+    //Lista de ids separados por comas: si alguno no es valido se vuelve a pedir la lista entera
+    public static List<UUID> readUUIDs(InputWriter writer, InputReader reader, String message) {
+        while (true) {
+            String entry = readNonEmpty(reader, writer, message);
+            List<UUID> ids = new ArrayList<>();
+            try {
+                for (String id : entry.split(",")) {
+                    if (!id.isBlank()) {
+                        ids.add(UUID.fromString(id.strip()));
+                    }
+                }
+                return ids;
             } catch (IllegalArgumentException e) {
+                rejectIfNotInteractive(reader, entry);
                 writer.println("El valor introducido no es correcto");
             }
         }
@@ -37,8 +83,15 @@ public final class InputValidator {
             if (input != null && !input.trim().isEmpty()) {
                 return input;
             }
+            rejectIfNotInteractive(scanner, input);
             writer.println("No puede estar vacío.");
         }
     }
 
+    private static void rejectIfNotInteractive(InputReader reader, String entry) {
+        if (!reader.isInteractive()) {
+            throw new IllegalArgumentException("El valor introducido no es correcto: " + entry);
+        }
+    }
+
 }
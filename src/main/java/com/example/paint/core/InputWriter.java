@@ -1,9 +1,27 @@
 package com.example.paint.core;
 
+import java.util.UUID;
+
 
 
 public interface InputWriter {
     void print(Object message);
     void println(Object message);
     void printf(String format, Object ... args);
+    //Sobrecargas para que una implementacion con buffer escriba sin boxing ni toString
+    default void print(double value) {
+        print((Object) value);
+    }
+    default void println(double value) {
+        println((Object) value);
+    }
+    default void print(UUID id) {
+        print((Object) id);
+    }
+    default void println(UUID id) {
+        println((Object) id);
+    }
+    //Vuelca lo pendiente si la implementacion tiene buffer
+    default void flush() {
+    }
 }
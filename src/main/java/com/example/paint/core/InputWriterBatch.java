@@ -0,0 +1,49 @@
+package com.example.paint.core;
+
+import java.util.UUID;
+
+//Descarta los prompts (print sin salto de linea) y deja pasar los resultados y mensajes
+public class InputWriterBatch implements InputWriter {
+    private final InputWriter out;
+
+    public InputWriterBatch(InputWriter out) {
+        this.out = out;
+    }
+
+    @Override
+    public void print(Object message) {
+    }
+
+    @Override
+    public void println(Object message) {
+        out.println(message);
+    }
+
+    @Override
+    public void print(double value) {
+    }
+
+    @Override
+    public void println(double value) {
+        out.println(value);
+    }
+
+    @Override
+    public void print(UUID id) {
+    }
+
+    @Override
+    public void println(UUID id) {
+        out.println(id);
+    }
+
+    @Override
+    public void printf(String format, Object... args) {
+        out.printf(format, args);
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.paint.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Formatter;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.example.paint.shapes.Shape;
+
+//Formatea en un StringBuilder reutilizado y lo codifica a un ByteBuffer que se escribe en el canal
+//en bloques de FLUSH_SIZE. print (sin salto de linea) es un prompt y se vuelca enseguida para que
+//se vea antes de leer; lo demas sale al llenarse el buffer o con flush() (fin de comando, salida).
+//Lo que escriben otros hilos (avisos de guardado/carga en segundo plano) se vuelca en el momento:
+//nadie va a llamar a flush() por ellos y quedaria detras del menu o se perderia al salir
+public class InputWriterBuffered implements InputWriter {
+    private static final int FLUSH_SIZE = 1 << 16;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_SIZE + 1024);
+    private final Formatter formatter = new Formatter(buffer);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(FLUSH_SIZE);
+    //ReentrantLock y no synchronized: un hilo virtual bloqueado escribiendo en un socket
+    //dentro de synchronized inmovilizaria su hilo portador
+    private final ReentrantLock lock = new ReentrantLock();
+    //el hilo que atiende la consola o la conexion: solo el vuelca al terminar cada comando
+    private final Thread owner = Thread.currentThread();
+
+    public InputWriterBuffered(WritableByteChannel channel, Charset charset) {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+                              .onMalformedInput(CodingErrorAction.REPLACE)
+                              .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    @Override
+    public void print(Object message) {
+        lock.lock();
+        try {
+            append(message);
+            flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void println(Object message) {
+        lock.lock();
+        try {
+            append(message);
+            endLine();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void print(double value) {
+        lock.lock();
+        try {
+            buffer.append(value);
+            flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void println(double value) {
+        lock.lock();
+        try {
+            buffer.append(value);
+            endLine();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void print(UUID id) {
+        lock.lock();
+        try {
+            FastText.appendUuid(buffer, id);
+            flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void println(UUID id) {
+        lock.lock();
+        try {
+            FastText.appendUuid(buffer, id);
+            endLine();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void printf(String format, Object... args) {
+        lock.lock();
+        try {
+            formatter.format(format, args);
+            flushIfPending();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            if (buffer.length() == 0) {
+                return;
+            }
+            try {
+                CharBuffer chars = CharBuffer.wrap(buffer);
+                while (true) {
+                    CoderResult result = encoder.encode(chars, bytes, true);
+                    if (result.isUnderflow()) {
+                        break;
+                    }
+                    drain();
+                }
+                drain();
+                encoder.reset();
+                buffer.setLength(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error escribiendo la salida", e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    private void append(Object message) {
+        if (message instanceof Shape shape) {
+            shape.appendTo(buffer);
+        } else if (message instanceof UUID id) {
+            FastText.appendUuid(buffer, id);
+        } else {
+            buffer.append(message);
+        }
+    }
+
+    private void endLine() {
+        buffer.append(LINE_SEPARATOR);
+        flushIfPending();
+    }
+
+    private void flushIfPending() {
+        if (buffer.length() >= FLUSH_SIZE || Thread.currentThread() != owner) {
+            flush();
+        }
+    }
+}
@@ -23,4 +23,9 @@ public class InputWriterImplementation implements InputWriter {
     public void printf(String format, Object... args) {
         out.printf(format, args);
     }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
 }
@@ -1,20 +1,16 @@
 package com.example.paint.core;
 
-import org.reflections.Reflections;
-
-import com.example.paint.commands.CommandContext;
-import com.example.paint.shapes.Shape;
 import com.example.paint.shapes.interfaces.InteractiveCreatable;
 
 import java.util.*;
-import java.util.function.Supplier;
 
+//Los creadores no guardan estado: cada llamada recibe el contexto (entrada/salida) de quien la hace
 public class ShapeRegistry {
-    private static final Map<String, Supplier<Shape>> registry = new HashMap<>();
+    private static final Map<String, InteractiveCreatable> registry = new HashMap<>();
+
+    public static void registerShapes(ComponentIndex index) {
 
-    public static void registerShapes(CommandContext context, Reflections reflections) {
-              
-        Set<Class<?>> creators = reflections.getTypesAnnotatedWith(RegisterShape.class);
+        Set<Class<?>> creators = index.getShapeCreators();
 
         for (Class<?> clazz : creators) {
             RegisterShape annotation = clazz.getAnnotation(RegisterShape.class);
@@ -25,7 +21,7 @@ public class ShapeRegistry {
 
             try {
                 InteractiveCreatable instance = (InteractiveCreatable) clazz.getDeclaredConstructor().newInstance();
-                registry.put(annotation.value().toLowerCase(), () -> instance.createFromInput(context));
+                registry.put(annotation.value().toLowerCase(), instance);
             } catch (Exception e) {
                 System.err.println("Error al instanciar " + clazz.getName());
                 e.printStackTrace();
@@ -33,7 +29,7 @@ public class ShapeRegistry {
         }
     }
 
-    public static Supplier<Shape> getFactory(String name) {
+    public static InteractiveCreatable getFactory(String name) {
         return registry.get(name.toLowerCase());
     }
 
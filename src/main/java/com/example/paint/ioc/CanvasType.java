@@ -0,0 +1,5 @@
+package com.example.paint.ioc;
+
+public enum CanvasType {
+    LIST, INDEXED, COLUMNAR, CONCURRENT
+}
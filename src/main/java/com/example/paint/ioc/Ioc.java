@@ -1,20 +1,38 @@
 package com.example.paint.ioc;
 
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintStream;
-import java.util.Scanner;
-
-import org.reflections.Reflections;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
+import com.example.json.JsonCodec;
 import com.example.paint.app.AppPaint;
+import com.example.paint.app.AppPaintBatch;
 import com.example.paint.app.AppPaintImplementation;
+import com.example.paint.app.AppPaintServer;
 import com.example.paint.canvas.Canvas;
+import com.example.paint.canvas.CanvasColumnar;
+import com.example.paint.canvas.CanvasConcurrent;
+import com.example.paint.canvas.CanvasIndexed;
 import com.example.paint.canvas.CanvasImplementation;
+import com.example.paint.commands.CommandHistory;
+import com.example.paint.core.ComponentIndex;
 import com.example.paint.core.InputReader;
-import com.example.paint.core.InputReaderScanner;
+import com.example.paint.core.InputReaderStream;
 import com.example.paint.core.InputWriter;
-import com.example.paint.core.InputWriterImplementation;
+import com.example.paint.core.InputWriterBuffered;
+import com.example.paint.storage.BinaryStorage;
+import com.example.paint.storage.JournalStorage;
 import com.example.paint.storage.JsonStorage;
+import com.example.paint.storage.JsonStreamingStorage;
+import com.example.paint.storage.MappedStorage;
 import com.example.paint.storage.Storage;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -22,32 +40,74 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 public final class Ioc {
     private Ioc(){}
-    private static Storage createStorage(ObjectMapper mapper){
-        return new JsonStorage(mapper);
+    private static Storage createStorage(StorageType type, JsonCodec codec){
+        var mapper = codec.getMapper();
+        return switch (type) {
+            case JSON -> new JsonStorage(codec);
+            case JSON_STREAM -> new JsonStreamingStorage(codec);
+            case BINARY -> new BinaryStorage(mapper);
+            case MAPPED -> new MappedStorage(mapper);
+            case JOURNAL -> new JournalStorage(new BinaryStorage(mapper), mapper);
+        };
     }
     private static InputWriter createInputWriter(PrintStream out){
-        return new InputWriterImplementation(out);
+        //la salida estandar se escribe directamente sobre su descriptor, sin pasar por el PrintStream
+        var channel = out == System.out
+                ? new FileOutputStream(FileDescriptor.out).getChannel()
+                : Channels.newChannel(out);
+        return new InputWriterBuffered(channel, out.charset());
+    }
+    private static Canvas createCanvas(CanvasType type, Storage storage, InputWriter writer, ObjectMapper mapper){
+        return switch (type) {
+            case LIST -> new CanvasImplementation(storage, writer);
+            case INDEXED -> new CanvasIndexed(storage, writer);
+            case COLUMNAR -> new CanvasColumnar(storage, writer, mapper);
+            case CONCURRENT -> new CanvasConcurrent(storage, writer);
+        };
     }
-    private static Canvas createCanvas(Storage storage, InputWriter writer){
-        return new CanvasImplementation(storage, writer);
+    private static CommandHistory createHistory(int capacity){
+        return new CommandHistory(capacity);
     }
-    private static InputReader createInputReader(Scanner scanner){        
-        return new InputReaderScanner(scanner);
+    private static InputReader createInputReader(InputStream in){
+        return new InputReaderStream(in, StandardCharsets.UTF_8);
     }
-    private static Scanner creatScanner(InputStream in ){
-        return new Scanner(in);
-    } 
-    public static Reflections createReflection(String packaString){
-        return new Reflections(packaString); 
+    private static BufferedReader createBatchSource(String batch, InputStream in){
+        if (batch.equals("-")) {
+            return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        try {
+            return Files.newBufferedReader(Path.of(batch), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("No se puede abrir el fichero de comandos " + batch, e);
+        }
+    }
+    public static ComponentIndex createComponentIndex(String packaString){
+        return ComponentIndex.load(packaString);
     }
     public static AppPaint createApp(
-        ObjectMapper mapper,
+        JsonCodec codec,
         InputStream in,
         PrintStream out
     ){
+        return createApp(codec, in, out, new PaintOptions());
+    }
+    public static AppPaint createApp(
+        JsonCodec codec,
+        InputStream in,
+        PrintStream out,
+        PaintOptions options
+    ){
+        var json = options.isPretty() ? codec.pretty() : codec.compact();
         var writer = createInputWriter(out);
-        var reader = createInputReader(creatScanner(in));
-        var canvas = createCanvas(createStorage(mapper), writer);
-        return new AppPaintImplementation(reader,writer,canvas);
+        var history = createHistory(options.getHistory());
+        var canvas = createCanvas(options.getCanvas(), createStorage(options.getStorage(), json), writer, json.getMapper());
+        if (options.getServer() != null) {
+            return new AppPaintServer(options.getServer(), writer, canvas, options.getHistory());
+        }
+        if (options.getBatch() != null) {
+            return new AppPaintBatch(createBatchSource(options.getBatch(), in), writer, canvas, history);
+        }
+        var reader = createInputReader(in);
+        return new AppPaintImplementation(reader,writer,canvas,history);
     }
 }
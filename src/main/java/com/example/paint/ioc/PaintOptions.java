@@ -0,0 +1,45 @@
+package com.example.paint.ioc;
+
+import com.example.paint.commands.CommandHistory;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class PaintOptions {
+    public static final int DEFAULT_PORT = 5000;
+
+    private CanvasType canvas = CanvasType.LIST;
+    private StorageType storage = StorageType.JSON;
+    private boolean pretty;
+    //fichero de comandos, o "-" para leerlos de la entrada estandar
+    private String batch;
+    //puerto TCP del modo servidor (0 = uno libre); null si no se usa
+    private Integer server;
+    //comandos que se pueden deshacer
+    private int history = CommandHistory.DEFAULT_CAPACITY;
+
+    //--canvas=indexed|columnar|concurrent --storage=json-stream|binary|mapped|journal --pretty --batch=<fichero>|- --server=5000 --history=100
+    public static PaintOptions fromArgs(String[] args) {
+        var options = new PaintOptions();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "--canvas" -> options.setCanvas(CanvasType.valueOf(constant(value)));
+                case "--storage" -> options.setStorage(StorageType.valueOf(constant(value)));
+                case "--history" -> options.setHistory(Integer.parseInt(value));
+                case "--batch" -> options.setBatch(value.isEmpty() ? "-" : value);
+                case "--server" -> options.setServer(value.isEmpty() ? DEFAULT_PORT : Integer.parseInt(value));
+                case "--pretty" -> options.setPretty(value.isEmpty() || Boolean.parseBoolean(value));
+                default -> throw new IllegalArgumentException("Opción desconocida: " + arg);
+            }
+        }
+        return options;
+    }
+
+    private static String constant(String value) {
+        return value.toUpperCase().replace('-', '_');
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.paint.ioc;
+
+public enum StorageType {
+    JSON, JSON_STREAM, BINARY, MAPPED, JOURNAL
+}
@@ -0,0 +1,127 @@
+package com.example.paint.processor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+//Genera META-INF/paint/components.properties en compilacion (ver ComponentIndex)
+@SupportedAnnotationTypes("*")
+public class ComponentIndexProcessor extends AbstractProcessor {
+    private static final String RESOURCE = "META-INF/paint/components.properties";
+    private static final String REGISTER_SHAPE = "com.example.paint.core.RegisterShape";
+    private static final String REGISTER_COMMAND = "com.example.paint.core.RegisterCommand";
+    private static final String SHAPE = "com.example.paint.shapes.Shape";
+
+    private final Set<String> shapes = new TreeSet<>();
+    private final Set<String> commands = new TreeSet<>();
+    private final Set<String> shapeTypes = new TreeSet<>();
+    //clases vistas en esta compilacion, esten o no en el indice
+    private final Set<String> seen = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            write();
+        } else {
+            roundEnv.getRootElements().forEach(this::collect);
+        }
+        return false;
+    }
+
+    private void collect(Element element) {
+        if (!(element instanceof TypeElement type)) {
+            return;
+        }
+        if (type.getKind() == ElementKind.CLASS) {
+            String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+            seen.add(name);
+            if (hasAnnotation(type, REGISTER_SHAPE)) {
+                shapes.add(name);
+            }
+            if (hasAnnotation(type, REGISTER_COMMAND)) {
+                commands.add(name);
+            }
+            if (!type.getModifiers().contains(Modifier.ABSTRACT) && isShape(type)) {
+                shapeTypes.add(name);
+            }
+        }
+        type.getEnclosedElements().forEach(this::collect);
+    }
+
+    private boolean hasAnnotation(TypeElement type, String annotation) {
+        return type.getAnnotationMirrors().stream()
+                .anyMatch(mirror -> mirror.getAnnotationType().toString().equals(annotation));
+    }
+
+    private boolean isShape(TypeElement type) {
+        var shape = processingEnv.getElementUtils().getTypeElement(SHAPE);
+        var types = processingEnv.getTypeUtils();
+        return shape != null && types.isAssignable(types.erasure(type.asType()), types.erasure(shape.asType()));
+    }
+
+    //Una compilacion incremental (la del IDE) solo ve las clases que recompila: las del indice
+    //anterior que no se han recompilado se conservan si siguen existiendo y cumpliendo lo mismo
+    private void mergePrevious() {
+        Properties previous = new Properties();
+        try {
+            var resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE);
+            try (Reader reader = resource.openReader(true)) {
+                previous.load(reader);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            //compilacion completa: no hay indice anterior
+            return;
+        }
+        var elements = processingEnv.getElementUtils();
+        for (String key : List.of("shapes", "commands", "shapeTypes")) {
+            for (String name : previous.getProperty(key, "").split(",")) {
+                name = name.trim();
+                if (name.isEmpty() || seen.contains(name)) {
+                    continue;
+                }
+                TypeElement type = elements.getTypeElement(name.replace('$', '.'));
+                if (type != null) {
+                    collect(type);
+                }
+            }
+        }
+    }
+
+    private void write() {
+        mergePrevious();
+        if (shapes.isEmpty() && commands.isEmpty() && shapeTypes.isEmpty()) {
+            return;
+        }
+        try {
+            var resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE);
+            try (Writer writer = resource.openWriter()) {
+                writer.write("shapes=" + String.join(",", shapes) + "\n");
+                writer.write("commands=" + String.join(",", commands) + "\n");
+                writer.write("shapeTypes=" + String.join(",", shapeTypes) + "\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "No se pudo generar " + RESOURCE + ": " + e);
+        }
+    }
+}
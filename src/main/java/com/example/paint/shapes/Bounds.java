@@ -0,0 +1,17 @@
+package com.example.paint.shapes;
+
+public record Bounds(double minX, double minY, double maxX, double maxY) {
+
+    public static Bounds of(double x1, double y1, double x2, double y2) {
+        return new Bounds(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2));
+    }
+
+    public boolean contains(double x, double y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    public boolean intersects(Bounds other) {
+        return other.minX <= maxX && other.maxX >= minX
+                && other.minY <= maxY && other.maxY >= minY;
+    }
+}
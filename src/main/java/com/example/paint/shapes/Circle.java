@@ -2,6 +2,8 @@ package com.example.paint.shapes;
 
 import java.util.UUID;
 
+import com.example.paint.core.FastText;
+
 import lombok.Getter;
 
 
@@ -27,9 +29,43 @@ public class Circle extends ShapeAbstract implements Shape {
         return Math.PI * radio * radio;
     }
 
+    @Override
+    public void scale(double factor) {
+        radio *= factor;
+    }
+
+    @Override
+    public Circle copy() {
+        return new Circle(getId(), getX(), getY(), radio);
+    }
+
+    @Override
+    public Bounds bounds() {
+        return Bounds.of(getX() - radio, getY() - radio, getX() + radio, getY() + radio);
+    }
+
+    @Override
+    public boolean contains(double x, double y) {
+        double dx = x - getX();
+        double dy = y - getY();
+        return dx * dx + dy * dy <= radio * radio;
+    }
+
+    @Override
+    public boolean intersects(Bounds area) {
+        double dx = getX() - Math.max(area.minX(), Math.min(getX(), area.maxX()));
+        double dy = getY() - Math.max(area.minY(), Math.min(getY(), area.maxY()));
+        return dx * dx + dy * dy <= radio * radio;
+    }
+
+    @Override
+    public StringBuilder appendTo(StringBuilder out) {
+        return FastText.appendUuid(out.append("Circle [id="), getId()).append(", radio=").append(getRadio())
+                  .append(", x=").append(getX()).append(", y=").append(getY()).append(']');
+    }
+
     @Override
     public String toString() {
-        return "Circle [id=" + getId() + ", radio=" + getRadio() + ", x=" + getX() + ", y=" + getY()
-                + "]";
+        return appendTo(new StringBuilder(96)).toString();
     }
 }
@@ -2,6 +2,8 @@ package com.example.paint.shapes;
 
 import java.util.UUID;
 
+import com.example.paint.core.FastText;
+
 import lombok.Getter;
 
 
@@ -40,13 +42,39 @@ public class Rectangle extends ShapeAbstract implements Shape {
     public double area() {
         return height * width;
     }
+
+    @Override
+    public void scale(double factor) {
+        width *= factor;
+        height *= factor;
+    }
+
+    @Override
+    public Rectangle copy() {
+        return new Rectangle(getId(), getX(), getY(), width, height);
+    }
+
+    @Override
+    public Bounds bounds() {
+        return Bounds.of(getX(), getY(), getX() + width, getY() + height);
+    }
+
+    @Override
+    public boolean contains(double x, double y) {
+        return bounds().contains(x, y);
+    }
     
 
+    @Override
+    public StringBuilder appendTo(StringBuilder out) {
+        return FastText.appendUuid(out.append("Rectangle [id="), getId()).append(", area=").append(area())
+                  .append(", x=").append(getX()).append(", width=").append(getWidth())
+                  .append(", y=").append(getY()).append(", height=").append(getHeight()).append(']');
+    }
+
     @Override
     public String toString() {
-        return "Rectangle [id=" + getId() + ", area=" + area() + ", x=" + getX() + ", width="
-                + getWidth() + ", y="
-                + getY() + ", height=" + getHeight() + "]";
+        return appendTo(new StringBuilder(128)).toString();
     }
 
 }
@@ -6,5 +6,17 @@ public interface Shape {
     UUID getId();
     double area();
     void move(double dx, double dy);
+    //Escala las dimensiones manteniendo la posicion
+    void scale(double factor);
+    Shape copy();
+    Bounds bounds();
+    boolean contains(double x, double y);
+    default boolean intersects(Bounds area) {
+        return bounds().intersects(area);
+    }
+    //Mismo texto que toString() pero sobre un buffer ya existente, sin concatenar
+    default StringBuilder appendTo(StringBuilder out) {
+        return out.append(this);
+    }
     String toString(); 
 }
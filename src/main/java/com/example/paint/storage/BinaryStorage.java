@@ -0,0 +1,181 @@
+package com.example.paint.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import com.example.paint.shapes.Shape;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Formato (big endian):
+ *   cabecera: MAGIC, VERSION(short), numero de tipos(short)
+ *             por tipo: tag(byte), nombre(UTF), numero de campos(byte), nombre de cada campo(UTF)
+ *   registros: tag(byte), id(long msb, long lsb), un double por campo del tipo
+ *   fin: tag 0
+ * Los campos se emparejan por nombre al leer, asi que un fichero sigue siendo legible
+ * aunque un tipo gane o pierda campos; los tipos desconocidos se saltan.
+ */
+public class BinaryStorage implements Storage {
+    private static final int MAGIC = 0x53485042; //"SHPB"
+    private static final short VERSION = 1;
+    private static final int END = 0;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Map<Class<?>, ShapeLayout> layouts;
+
+    public BinaryStorage(ObjectMapper mapper) {
+        this.layouts = ShapeLayout.fromMapper(mapper);
+        //se comprueba aqui para no truncar un fichero y fallar despues a mitad de la cabecera
+        unsignedByte(layouts.size(), "Numero de tipos de figura");
+        layouts.values().forEach(layout -> unsignedByte(layout.size(), "Numero de campos de " + layout.getName()));
+    }
+
+    @Override
+    public void save(String filename, List<Shape> shapes) {
+        saveEach(filename, shapes);
+    }
+
+    @Override
+    public List<Shape> load(String filename) {
+        List<Shape> shapes = new ArrayList<>();
+        loadEach(filename, shapes::add);
+        return shapes;
+    }
+
+    @Override
+    public void saveEach(String filename, Iterable<Shape> shapes) {
+        try (var out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), BUFFER_SIZE))) {
+            Map<Class<?>, Integer> tags = writeHeader(out);
+            for (Shape shape : shapes) {
+                Integer tag = tags.get(shape.getClass());
+                if (tag == null) {
+                    throw new IllegalArgumentException("Tipo de figura no registrado: " + shape.getClass().getName());
+                }
+                ShapeLayout layout = layouts.get(shape.getClass());
+                out.writeByte(tag);
+                out.writeLong(shape.getId().getMostSignificantBits());
+                out.writeLong(shape.getId().getLeastSignificantBits());
+                for (int i = 0; i < layout.size(); i++) {
+                    out.writeDouble(layout.get(shape, i));
+                }
+            }
+            out.writeByte(END);
+        } catch (IOException e) {
+            throw new RuntimeException("Error saving shapes to file", e);
+        }
+    }
+
+    @Override
+    public void loadEach(String filename, Consumer<Shape> consumer) {
+        try (var in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename), BUFFER_SIZE))) {
+            FileType[] types = readHeader(in);
+            int tag;
+            while ((tag = in.readUnsignedByte()) != END) {
+                FileType type = types[tag];
+                if (type == null) {
+                    throw new IOException("Tag de figura desconocido: " + tag);
+                }
+                UUID id = new UUID(in.readLong(), in.readLong());
+                if (!type.complete) {
+                    Arrays.fill(type.values, 0);
+                }
+                for (int i = 0; i < type.fieldCount; i++) {
+                    double value = in.readDouble();
+                    int target = type.mapping[i];
+                    if (target >= 0) {
+                        type.values[target] = value;
+                    }
+                }
+                if (type.layout != null) {
+                    consumer.accept(type.layout.create(id, type.values));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading shapes from file", e);
+        }
+    }
+
+    private Map<Class<?>, Integer> writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(layouts.size());
+        Map<Class<?>, Integer> tags = new HashMap<>();
+        int tag = 1;
+        for (ShapeLayout layout : layouts.values()) {
+            out.writeByte(unsignedByte(tag, "Tag de " + layout.getName()));
+            out.writeUTF(layout.getName());
+            out.writeByte(unsignedByte(layout.size(), "Numero de campos de " + layout.getName()));
+            for (String field : layout.getFields()) {
+                out.writeUTF(field);
+            }
+            tags.put(layout.getType(), tag++);
+        }
+        return tags;
+    }
+
+    //writeByte se queda con los 8 bits bajos: un valor mayor corromperia el fichero sin avisar
+    static int unsignedByte(int value, String what) {
+        if (value < 0 || value > 255) {
+            throw new IllegalArgumentException(what + " fuera de rango (0-255): " + value);
+        }
+        return value;
+    }
+
+    private FileType[] readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("No es un fichero de figuras binario");
+        }
+        short version = in.readShort();
+        if (version > VERSION) {
+            throw new IOException("Versión de fichero no soportada: " + version);
+        }
+        Map<String, ShapeLayout> byName = new HashMap<>();
+        layouts.values().forEach(layout -> byName.put(layout.getName(), layout));
+
+        FileType[] types = new FileType[256];
+        int count = in.readShort();
+        for (int i = 0; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            ShapeLayout layout = byName.get(in.readUTF());
+            String[] fields = new String[in.readUnsignedByte()];
+            for (int f = 0; f < fields.length; f++) {
+                fields[f] = in.readUTF();
+            }
+            types[tag] = new FileType(layout, fields);
+        }
+        return types;
+    }
+
+    private static class FileType {
+        final ShapeLayout layout;
+        final int fieldCount;
+        //posicion en el fichero -> posicion en el constructor actual (-1 si ya no existe)
+        final int[] mapping;
+        final double[] values;
+        final boolean complete;
+
+        FileType(ShapeLayout layout, String[] fields) {
+            this.layout = layout;
+            this.fieldCount = fields.length;
+            this.mapping = new int[fields.length];
+            this.values = layout == null ? new double[0] : new double[layout.size()];
+            List<String> current = layout == null ? List.of() : List.of(layout.getFields());
+            for (int i = 0; i < fields.length; i++) {
+                mapping[i] = current.indexOf(fields[i]);
+            }
+            this.complete = current.stream().allMatch(field -> List.of(fields).contains(field));
+        }
+    }
+}
@@ -0,0 +1,490 @@
+package com.example.paint.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.example.paint.shapes.Shape;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Snapshot (en el formato de otro Storage) + journal de cambios en <fichero>.journal.
+ * Cada alta/movimiento/baja del canvas añade un registro pequeño; un hilo en segundo
+ * plano hace fsync periodicamente y, cuando el journal crece, lo pliega en un snapshot nuevo.
+ * Recuperar = snapshot + <fichero>.journal.old (si quedo una compactacion a medias) + journal.
+ * Los registros guardan posiciones absolutas, asi que reaplicarlos dos veces no cambia el resultado.
+ * Hasta el primer guardado o carga no hay fichero al que adjuntar el journal: esos cambios solo
+ * quedan en memoria y el primer guardado los recoge en el snapshot.
+ * Un fallo del fsync o de la compactacion en segundo plano se guarda y lo devuelve el siguiente guardado.
+ */
+public class JournalStorage implements Storage {
+    private static final int MAGIC = 0x53485045; //"SHPJ"
+    private static final short VERSION = 1;
+    private static final byte ADD = 1;
+    private static final byte MOVE = 2;
+    private static final byte REMOVE = 3;
+    //operacion + id
+    private static final int ID_SIZE = 1 + 2 * Long.BYTES;
+    private static final int COMPACT_THRESHOLD = 50_000;
+    private static final long SYNC_INTERVAL_MS = 200;
+
+    private final Storage snapshots;
+    private final Map<Class<?>, ShapeLayout> layouts;
+    private final Map<String, ShapeLayout> layoutsByName = new HashMap<>();
+    private final ScheduledExecutorService background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object lock = new Object();
+
+    private Path snapshot;
+    private DataOutputStream journal;
+    private FileChannel channel;
+    private int records;
+    private long generation;
+    private boolean dirty;
+    private boolean compacting;
+    //primer fallo en segundo plano desde el ultimo guardado
+    private IOException failure;
+
+    public JournalStorage(Storage snapshots, ObjectMapper mapper) {
+        this.snapshots = snapshots;
+        this.layouts = ShapeLayout.fromMapper(mapper);
+        layouts.values().forEach(layout -> layoutsByName.put(layout.getName(), layout));
+        background.scheduleWithFixedDelay(this::sync, SYNC_INTERVAL_MS, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void save(String filename, List<Shape> shapes) {
+        saveEach(filename, shapes);
+    }
+
+    @Override
+    public List<Shape> load(String filename) {
+        List<Shape> shapes = new ArrayList<>();
+        loadEach(filename, shapes::add);
+        return shapes;
+    }
+
+    //El snapshot se escribe en <fichero>.saving y sustituye al anterior con un move atomico; los
+    //journals se borran despues. Si el proceso muere antes del move queda el snapshot anterior con
+    //su journal; si muere entre el move y el borrado, el journal del fichero adjunto reaplicado sobre
+    //el snapshot nuevo da el mismo estado (registros con posiciones absolutas y completos hasta aqui).
+    //El journal de otro fichero no es de este contenido: se descarta antes de escribir.
+    //El snapshot nuevo sustituye al journal que fallo, pero el fallo se notifica igualmente:
+    //los cambios anteriores a este guardado pudieron no llegar a disco
+    @Override
+    public void saveEach(String filename, Iterable<Shape> shapes) {
+        Path target = Path.of(filename).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".saving");
+        IOException failed;
+        synchronized (lock) {
+            Path previous = snapshot;
+            try {
+                detach();
+                if (!target.equals(previous)) {
+                    Files.deleteIfExists(old(target));
+                    Files.deleteIfExists(journal(target));
+                }
+                snapshots.saveEach(temp.toString(), shapes);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(old(target));
+                Files.deleteIfExists(journal(target));
+                attach(target);
+            } catch (IOException | RuntimeException e) {
+                //el fichero anterior sigue intacto: se vuelve a adjuntar para no perder ediciones
+                reattach(previous, temp, e);
+                throw e instanceof RuntimeException runtime ? runtime : new RuntimeException("Error saving shapes to file", e);
+            }
+            failed = failure;
+            failure = null;
+        }
+        if (failed != null) {
+            throw new RuntimeException("Guardado completo, pero antes fallo el journal: " + failed.getMessage(), failed);
+        }
+    }
+
+    //Los avisos del canvas se aplican sobre el fichero adjunto, asi que el guardado completo
+    //se hace en el hilo del canvas para que ningun aviso quede entre el snapshot y el cambio de fichero
+    @Override
+    public CompletableFuture<Void> saveAsync(String filename, Iterable<Shape> shapes, Executor executor) {
+        try {
+            saveEach(filename, shapes);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    //Por lo mismo, la carga tambien se hace en el hilo del canvas, que adjunta el fichero al terminar
+    @Override
+    public CompletableFuture<List<Shape>> loadAsync(String filename, Executor executor) {
+        try {
+            return CompletableFuture.completedFuture(load(filename));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void loadEach(String filename, Consumer<Shape> consumer) {
+        Path target = Path.of(filename).toAbsolutePath();
+        synchronized (lock) {
+            try {
+                recover(target).values().forEach(consumer);
+            } catch (IOException e) {
+                throw new RuntimeException("Error loading shapes from file", e);
+            }
+        }
+    }
+
+    @Override
+    public void attach(String filename) {
+        Path target = filename == null ? null : Path.of(filename).toAbsolutePath();
+        synchronized (lock) {
+            if (target != null && target.equals(snapshot)) {
+                return;
+            }
+            try {
+                detach();
+                if (target != null) {
+                    attach(target);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Error opening journal", e);
+            }
+        }
+    }
+
+    @Override
+    public String attached() {
+        synchronized (lock) {
+            return snapshot == null ? null : snapshot.toString();
+        }
+    }
+
+    @Override
+    public void shapeAdded(Shape shape) {
+        append(out -> {
+            ShapeLayout layout = layoutOf(shape);
+            out.writeByte(ADD);
+            writeId(out, shape.getId());
+            out.writeUTF(layout.getName());
+            out.writeByte(layout.size());
+            for (int i = 0; i < layout.size(); i++) {
+                out.writeDouble(layout.get(shape, i));
+            }
+        });
+    }
+
+    @Override
+    public void shapeMoved(Shape shape, double dx, double dy) {
+        append(out -> {
+            ShapeLayout layout = layoutOf(shape);
+            out.writeByte(MOVE);
+            writeId(out, shape.getId());
+            out.writeDouble(layout.get(shape, layout.indexOf("x")));
+            out.writeDouble(layout.get(shape, layout.indexOf("y")));
+        });
+    }
+
+    //Un ADD con el estado completo sustituye al anterior al reaplicar el journal
+    @Override
+    public void shapeUpdated(Shape shape) {
+        shapeAdded(shape);
+    }
+
+    @Override
+    public void shapeRemoved(Shape shape) {
+        append(out -> {
+            out.writeByte(REMOVE);
+            writeId(out, shape.getId());
+        });
+    }
+
+    private interface Record {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private void append(Record record) {
+        synchronized (lock) {
+            if (journal == null) {
+                return;
+            }
+            try {
+                record.write(journal);
+                journal.flush();
+                dirty = true;
+                if (++records >= COMPACT_THRESHOLD && !compacting) {
+                    compacting = true;
+                    background.execute(this::compact);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Error writing journal", e);
+            }
+        }
+    }
+
+    //Espera a que termine lo que ya estaba encolado en segundo plano (compactacion, fsync)
+    void awaitBackground() {
+        try {
+            background.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //Con el lock
+    private void reattach(Path previous, Path temp, Exception cause) {
+        try {
+            Files.deleteIfExists(temp);
+            if (previous != null && snapshot == null) {
+                attach(previous);
+            }
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void sync() {
+        synchronized (lock) {
+            if (!dirty || channel == null) {
+                return;
+            }
+            try {
+                channel.force(false);
+                dirty = false;
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    private void compact() {
+        Path target;
+        long compacted;
+        synchronized (lock) {
+            target = snapshot;
+            compacted = generation;
+            try {
+                if (target == null) {
+                    return;
+                }
+                //el journal actual pasa a .old y las ediciones siguen en uno nuevo
+                if (!Files.exists(old(target))) {
+                    closeJournal();
+                    Files.move(journal(target), old(target), StandardCopyOption.ATOMIC_MOVE);
+                    openJournal(target);
+                }
+            } catch (IOException e) {
+                compacting = false;
+                failCompaction(compacted, e);
+                return;
+            }
+        }
+        try {
+            Map<UUID, Shape> state = new LinkedHashMap<>();
+            if (Files.exists(target)) {
+                snapshots.loadEach(target.toString(), shape -> state.put(shape.getId(), shape));
+            }
+            replay(old(target), state);
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            snapshots.saveEach(temp.toString(), state.values());
+            synchronized (lock) {
+                //si entretanto se guardo o se cargo un fichero, este snapshot ya no vale
+                if (compacted == generation) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    Files.deleteIfExists(old(target));
+                } else {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException e) {
+            synchronized (lock) {
+                failCompaction(compacted, e);
+            }
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                failCompaction(compacted, new IOException(e.getMessage(), e));
+            }
+        } finally {
+            synchronized (lock) {
+                compacting = false;
+            }
+        }
+    }
+
+    //Con el lock. Si entretanto se guardo o se cargo otro fichero, el fallo (p.ej. leer un snapshot
+    //que se estaba reescribiendo) ya no importa: el journal que se compactaba no es el actual.
+    //Si no, se vuelve a contar desde cero para no lanzar otra compactacion con cada registro
+    private void failCompaction(long compacted, IOException e) {
+        if (compacted != generation) {
+            return;
+        }
+        records = 0;
+        fail(e);
+    }
+
+    //Con el lock
+    private void fail(IOException e) {
+        if (failure == null) {
+            failure = e;
+        }
+    }
+
+    private Map<UUID, Shape> recover(Path target) throws IOException {
+        Map<UUID, Shape> state = new LinkedHashMap<>();
+        if (Files.exists(target)) {
+            snapshots.loadEach(target.toString(), shape -> state.put(shape.getId(), shape));
+        }
+        replay(old(target), state);
+        Path journal = journal(target);
+        long valid = replay(journal, state);
+        if (Files.exists(journal) && Files.size(journal) > valid) {
+            //se descarta el registro a medias para poder seguir añadiendo detras
+            try (var channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+        }
+        return state;
+    }
+
+    //Devuelve los bytes de registros completos leidos
+    private long replay(Path path, Map<UUID, Shape> state) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        long valid = 0;
+        try (var in = new DataInputStream(new BufferedInputStream(new FileInputStream(path.toFile()), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("No es un journal de figuras: " + path);
+            }
+            in.readShort();
+            valid = Integer.BYTES + Short.BYTES;
+            while (true) {
+                byte op = in.readByte();
+                UUID id = new UUID(in.readLong(), in.readLong());
+                switch (op) {
+                    case ADD -> {
+                        String name = in.readUTF();
+                        double[] values = new double[in.readUnsignedByte()];
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = in.readDouble();
+                        }
+                        ShapeLayout layout = layoutsByName.get(name);
+                        if (layout != null) {
+                            state.put(id, layout.create(id, values));
+                        }
+                        valid += ID_SIZE + Short.BYTES + name.getBytes(StandardCharsets.UTF_8).length
+                                + 1 + values.length * Double.BYTES;
+                    }
+                    case MOVE -> {
+                        double x = in.readDouble();
+                        double y = in.readDouble();
+                        Shape shape = state.get(id);
+                        if (shape != null) {
+                            ShapeLayout layout = layoutOf(shape);
+                            double[] values = new double[layout.size()];
+                            layout.read(shape, values);
+                            values[layout.indexOf("x")] = x;
+                            values[layout.indexOf("y")] = y;
+                            state.put(id, layout.create(id, values));
+                        }
+                        valid += ID_SIZE + 2 * Double.BYTES;
+                    }
+                    case REMOVE -> {
+                        state.remove(id);
+                        valid += ID_SIZE;
+                    }
+                    default -> throw new IOException("Registro de journal desconocido: " + op);
+                }
+            }
+        } catch (EOFException e) {
+            //fin del journal, o un ultimo registro a medias si el proceso murio escribiendolo
+        }
+        return valid;
+    }
+
+    private void attach(Path target) throws IOException {
+        generation++;
+        snapshot = target;
+        openJournal(target);
+    }
+
+    private void detach() throws IOException {
+        closeJournal();
+        snapshot = null;
+    }
+
+    private void openJournal(Path target) throws IOException {
+        Path path = journal(target);
+        boolean exists = Files.exists(path) && Files.size(path) > 0;
+        var file = new FileOutputStream(path.toFile(), true);
+        channel = file.getChannel();
+        journal = new DataOutputStream(new BufferedOutputStream(file));
+        if (!exists) {
+            journal.writeInt(MAGIC);
+            journal.writeShort(VERSION);
+            journal.flush();
+        }
+        records = 0;
+    }
+
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.flush();
+            channel.force(false);
+            journal.close();
+            journal = null;
+            channel = null;
+        }
+    }
+
+    private ShapeLayout layoutOf(Shape shape) {
+        ShapeLayout layout = layouts.get(shape.getClass());
+        if (layout == null) {
+            throw new IllegalArgumentException("Tipo de figura no registrado: " + shape.getClass().getName());
+        }
+        return layout;
+    }
+
+    private static void writeId(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static Path journal(Path target) {
+        return target.resolveSibling(target.getFileName() + ".journal");
+    }
+
+    private static Path old(Path target) {
+        return target.resolveSibling(target.getFileName() + ".journal.old");
+    }
+}
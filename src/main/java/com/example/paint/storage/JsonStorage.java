@@ -4,22 +4,25 @@ import java.io.File;
 import java.io.IOException;
 import java.util.List;
 
+import com.example.json.JsonCodec;
 import com.example.paint.shapes.Shape;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 public class JsonStorage implements Storage {
-    private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
 
-    public JsonStorage(ObjectMapper mapper) {
-        this.mapper = mapper;
+    public JsonStorage(JsonCodec codec) {
+        this.writer = codec.shapesWriter();
+        this.reader = codec.shapesReader();
     }
 
     @Override
     public void save(String filename, List<Shape> shapes) {
 
         try {
-            mapper.writerWithDefaultPrettyPrinter().writeValue(new File(filename), shapes.toArray(new Shape[0]));
+            writer.writeValue(new File(filename), shapes);
         } catch (IOException e) {
             throw new RuntimeException("Error saving shapes to file", e);
         }
@@ -29,8 +32,7 @@ public class JsonStorage implements Storage {
     public List<Shape> load(String filename) {
 
         try {
-            return mapper.readValue(new File(filename), new TypeReference<List<Shape>>() {
-            });
+            return reader.readValue(new File(filename));
         } catch (IOException e) {
             throw new RuntimeException("Error loading shapes from file", e);
         }
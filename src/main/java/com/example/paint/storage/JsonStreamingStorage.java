@@ -0,0 +1,64 @@
+package com.example.paint.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.example.json.JsonCodec;
+import com.example.paint.shapes.Shape;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+//Escribe y lee figura a figura con JsonGenerator/JsonParser, sin construir la lista completa
+public class JsonStreamingStorage implements Storage {
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+    public JsonStreamingStorage(JsonCodec codec) {
+        this.writer = codec.shapeWriter()
+                           .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.reader = codec.shapeReader();
+    }
+
+    @Override
+    public void save(String filename, List<Shape> shapes) {
+        saveEach(filename, shapes);
+    }
+
+    @Override
+    public List<Shape> load(String filename) {
+        List<Shape> shapes = new ArrayList<>();
+        loadEach(filename, shapes::add);
+        return shapes;
+    }
+
+    @Override
+    public void saveEach(String filename, Iterable<Shape> shapes) {
+        try (var generator = writer.createGenerator(new File(filename), JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (Shape shape : shapes) {
+                writer.writeValue(generator, shape);
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new RuntimeException("Error saving shapes to file", e);
+        }
+    }
+
+    @Override
+    public void loadEach(String filename, Consumer<Shape> consumer) {
+        //MappingIterator desenvuelve el array raiz y deserializa un elemento cada vez
+        try (MappingIterator<Shape> shapes = reader.readValues(new File(filename))) {
+            while (shapes.hasNextValue()) {
+                consumer.accept(shapes.nextValue());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading shapes from file", e);
+        }
+    }
+}
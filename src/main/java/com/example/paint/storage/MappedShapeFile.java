@@ -0,0 +1,360 @@
+package com.example.paint.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import com.example.paint.shapes.Shape;
+
+/*
+ * Fichero de figuras en slots de tamaño fijo mapeado en memoria.
+ *   cabecera (HEADER_SIZE bytes): MAGIC, VERSION(short), slots usados(int), numero de tipos(short),
+ *             por tipo: tag(byte), nombre, numero de campos(byte), nombres de campo
+ *   slot (SLOT_SIZE bytes): estado(byte), tag(byte), relleno, id(msb, lsb), MAX_FIELDS doubles
+ * Mover o borrar una figura solo reescribe su slot. Las figuras se decodifican al tocarlas
+ * y el indice id -> slot se construye la primera vez que se busca un id.
+ */
+public class MappedShapeFile implements Closeable {
+    private static final int MAGIC = 0x5348504D; //"SHPM"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 4096;
+    private static final int SLOT_SIZE = 64;
+    private static final int MAX_FIELDS = 5;
+    private static final int SEGMENT_SLOTS = 1 << 24;
+    private static final int INITIAL_SLOTS = 1024;
+
+    private static final int USED_OFFSET = 6;
+    private static final int TYPES_OFFSET = 12;
+
+    private static final byte FREE = 0;
+    private static final byte LIVE = 1;
+    private static final int TAG = 1;
+    private static final int MSB = 8;
+    private static final int LSB = 16;
+    private static final int FIELDS = 24;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final Map<Class<?>, SlotType> typesByClass = new HashMap<>();
+    private final SlotType[] typesByTag = new SlotType[256];
+    private final Map<String, ShapeLayout> layouts = new HashMap<>();
+    private long capacity;
+    private int used;
+
+    private Map<UUID, Integer> index;
+    private Deque<Integer> free;
+
+    private MappedShapeFile(FileChannel channel, Iterable<ShapeLayout> layouts) throws IOException {
+        this.channel = channel;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        layouts.forEach(layout -> this.layouts.put(layout.getName(), layout));
+    }
+
+    public static MappedShapeFile create(Path path, Iterable<ShapeLayout> layouts) throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        var file = new MappedShapeFile(channel, layouts);
+        file.header.putInt(0, MAGIC);
+        file.header.putShort(4, VERSION);
+        file.header.putInt(USED_OFFSET, 0);
+        file.header.putShort(10, (short) 0);
+        file.index = new HashMap<>();
+        file.free = new ArrayDeque<>();
+        file.ensureCapacity(INITIAL_SLOTS);
+        return file;
+    }
+
+    public static MappedShapeFile open(Path path, Iterable<ShapeLayout> layouts) throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        var file = new MappedShapeFile(channel, layouts);
+        if (file.header.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException("No es un fichero de figuras mapeado");
+        }
+        short version = file.header.getShort(4);
+        if (version > VERSION) {
+            channel.close();
+            throw new IOException("Versión de fichero no soportada: " + version);
+        }
+        file.used = file.header.getInt(USED_OFFSET);
+        file.readTypes();
+        file.ensureCapacity(Math.max(file.used, INITIAL_SLOTS));
+        return file;
+    }
+
+    public void append(Shape shape) {
+        SlotType type = typeOf(shape);
+        int slot;
+        var free = free();
+        if (!free.isEmpty()) {
+            slot = free.pop();
+        } else {
+            ensureCapacity((long) used + 1);
+            slot = used++;
+            header.putInt(USED_OFFSET, used);
+        }
+        ByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+        segment.put(offset + TAG, (byte) type.tag);
+        segment.putLong(offset + MSB, shape.getId().getMostSignificantBits());
+        segment.putLong(offset + LSB, shape.getId().getLeastSignificantBits());
+        writeFields(segment, offset, type, shape);
+        segment.put(offset, LIVE);
+        index().put(shape.getId(), slot);
+    }
+
+    public void update(Shape shape) {
+        Integer slot = index().get(shape.getId());
+        if (slot == null) {
+            append(shape);
+            return;
+        }
+        writeFields(segment(slot), offset(slot), typeOf(shape), shape);
+    }
+
+    public void remove(UUID id) {
+        Integer slot = index().remove(id);
+        if (slot != null) {
+            segment(slot).put(offset(slot), FREE);
+            free().push(slot);
+        }
+    }
+
+    public Optional<Shape> read(UUID id) {
+        Integer slot = index().get(id);
+        return slot == null ? Optional.empty() : Optional.ofNullable(decode(slot));
+    }
+
+    public void forEach(Consumer<Shape> consumer) {
+        for (int slot = 0; slot < used; slot++) {
+            if (segment(slot).get(offset(slot)) == LIVE) {
+                Shape shape = decode(slot);
+                if (shape != null) {
+                    consumer.accept(shape);
+                }
+            }
+        }
+    }
+
+    public void force() {
+        header.force();
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private Shape decode(int slot) {
+        ByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+        SlotType type = typesByTag[segment.get(offset + TAG) & 0xff];
+        if (type == null || type.layout == null) {
+            return null;
+        }
+        double[] values = new double[type.layout.size()];
+        for (int i = 0; i < type.fields.length; i++) {
+            int target = type.mapping[i];
+            if (target >= 0) {
+                values[target] = segment.getDouble(offset + FIELDS + i * Double.BYTES);
+            }
+        }
+        UUID id = new UUID(segment.getLong(offset + MSB), segment.getLong(offset + LSB));
+        return type.layout.create(id, values);
+    }
+
+    private void writeFields(ByteBuffer segment, int offset, SlotType type, Shape shape) {
+        for (int i = 0; i < type.fields.length; i++) {
+            int source = type.mapping[i];
+            double value = source >= 0 ? type.layout.get(shape, source) : 0;
+            segment.putDouble(offset + FIELDS + i * Double.BYTES, value);
+        }
+    }
+
+    //Solo se recorren los ids; ninguna figura se decodifica para construir el indice
+    private Map<UUID, Integer> index() {
+        if (index == null) {
+            index = new HashMap<>();
+            free = new ArrayDeque<>();
+            for (int slot = 0; slot < used; slot++) {
+                ByteBuffer segment = segment(slot);
+                int offset = offset(slot);
+                if (segment.get(offset) == LIVE) {
+                    index.put(new UUID(segment.getLong(offset + MSB), segment.getLong(offset + LSB)), slot);
+                } else {
+                    free.push(slot);
+                }
+            }
+        }
+        return index;
+    }
+
+    private Deque<Integer> free() {
+        index();
+        return free;
+    }
+
+    private SlotType typeOf(Shape shape) {
+        SlotType type = typesByClass.get(shape.getClass());
+        if (type != null) {
+            return type;
+        }
+        ShapeLayout layout = layouts.values().stream()
+                .filter(l -> l.getType() == shape.getClass())
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Tipo de figura no registrado: " + shape.getClass().getName()));
+        return addType(layout);
+    }
+
+    private SlotType addType(ShapeLayout layout) {
+        if (layout.size() > MAX_FIELDS) {
+            throw new IllegalArgumentException(layout.getName() + " tiene más de " + MAX_FIELDS + " campos");
+        }
+        int count = header.getShort(10);
+        int position = TYPES_OFFSET;
+        for (int i = 0; i < count; i++) {
+            position = skipType(position);
+        }
+        byte[] name = layout.getName().getBytes(StandardCharsets.UTF_8);
+        int size = 1 + 1 + name.length + 1;
+        for (String field : layout.getFields()) {
+            size += 1 + field.getBytes(StandardCharsets.UTF_8).length;
+        }
+        if (count >= 255 || position + size > HEADER_SIZE) {
+            throw new IllegalStateException("No caben más tipos en la cabecera");
+        }
+        int tag = count + 1;
+        header.put(position++, (byte) tag);
+        position = putString(position, name);
+        header.put(position++, (byte) layout.size());
+        for (String field : layout.getFields()) {
+            position = putString(position, field.getBytes(StandardCharsets.UTF_8));
+        }
+        header.putShort(10, (short) (count + 1));
+
+        var type = new SlotType(tag, layout, layout.getFields());
+        typesByTag[tag] = type;
+        typesByClass.put(layout.getType(), type);
+        return type;
+    }
+
+    private void readTypes() {
+        int count = header.getShort(10);
+        int position = TYPES_OFFSET;
+        for (int i = 0; i < count; i++) {
+            int tag = header.get(position) & 0xff;
+            int next = position + 1;
+            String name = getString(next);
+            next += 1 + (header.get(next) & 0xff);
+            String[] fields = new String[header.get(next++) & 0xff];
+            for (int f = 0; f < fields.length; f++) {
+                fields[f] = getString(next);
+                next += 1 + (header.get(next) & 0xff);
+            }
+            ShapeLayout layout = layouts.get(name);
+            var type = new SlotType(tag, layout, fields);
+            typesByTag[tag] = type;
+            if (layout != null) {
+                typesByClass.put(layout.getType(), type);
+            }
+            position = next;
+        }
+    }
+
+    private int skipType(int position) {
+        int next = position + 1;
+        next += 1 + (header.get(next) & 0xff);
+        int fields = header.get(next++) & 0xff;
+        for (int f = 0; f < fields; f++) {
+            next += 1 + (header.get(next) & 0xff);
+        }
+        return next;
+    }
+
+    private int putString(int position, byte[] value) {
+        header.put(position++, (byte) value.length);
+        header.put(position, value);
+        return position + value.length;
+    }
+
+    private String getString(int position) {
+        byte[] value = new byte[header.get(position) & 0xff];
+        header.get(position + 1, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private void ensureCapacity(long slots) {
+        if (slots <= capacity) {
+            return;
+        }
+        long target = Math.max(slots, Math.max(capacity * 2, INITIAL_SLOTS));
+        try {
+            while (capacity < target) {
+                int last = segments.size() - 1;
+                long inLast = last < 0 ? SEGMENT_SLOTS : capacity - (long) last * SEGMENT_SLOTS;
+                if (inLast < SEGMENT_SLOTS) {
+                    //se rehace el mapeo del ultimo segmento con mas espacio
+                    long size = Math.min(SEGMENT_SLOTS, inLast + (target - capacity));
+                    segments.set(last, map(last, size));
+                    capacity += size - inLast;
+                } else {
+                    long size = Math.min(SEGMENT_SLOTS, target - capacity);
+                    segments.add(map(segments.size(), size));
+                    capacity += size;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error growing shape file", e);
+        }
+    }
+
+    private MappedByteBuffer map(int segment, long slots) throws IOException {
+        long position = HEADER_SIZE + (long) segment * SEGMENT_SLOTS * SLOT_SIZE;
+        return channel.map(FileChannel.MapMode.READ_WRITE, position, slots * SLOT_SIZE);
+    }
+
+    private ByteBuffer segment(int slot) {
+        return segments.get(slot / SEGMENT_SLOTS);
+    }
+
+    private static int offset(int slot) {
+        return (slot % SEGMENT_SLOTS) * SLOT_SIZE;
+    }
+
+    private static class SlotType {
+        final int tag;
+        final ShapeLayout layout;
+        final String[] fields;
+        //campo en el fichero -> campo del constructor actual (-1 si ya no existe)
+        final int[] mapping;
+
+        SlotType(int tag, ShapeLayout layout, String[] fields) {
+            this.tag = tag;
+            this.layout = layout;
+            this.fields = fields;
+            this.mapping = new int[fields.length];
+            List<String> current = layout == null ? List.of() : List.of(layout.getFields());
+            for (int i = 0; i < fields.length; i++) {
+                mapping[i] = current.indexOf(fields[i]);
+            }
+        }
+    }
+}
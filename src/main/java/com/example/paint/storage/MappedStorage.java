@@ -0,0 +1,155 @@
+package com.example.paint.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import com.example.paint.shapes.Shape;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//El ultimo fichero guardado o cargado queda abierto: los cambios del canvas se
+//escriben en su slot al momento y guardar sobre el mismo fichero solo hace force().
+//Al cargar, el fichero lo adjunta el canvas cuando ya tiene sus figuras (attach)
+public class MappedStorage implements Storage {
+    private final Collection<ShapeLayout> layouts;
+    private MappedShapeFile file;
+    private Path path;
+
+    public MappedStorage(ObjectMapper mapper) {
+        this.layouts = ShapeLayout.fromMapper(mapper).values();
+    }
+
+    @Override
+    public synchronized void save(String filename, List<Shape> shapes) {
+        saveEach(filename, shapes);
+    }
+
+    @Override
+    public synchronized List<Shape> load(String filename) {
+        List<Shape> shapes = new ArrayList<>();
+        loadEach(filename, shapes::add);
+        return shapes;
+    }
+
+    @Override
+    public synchronized void saveEach(String filename, Iterable<Shape> shapes) {
+        Path target = Path.of(filename).toAbsolutePath();
+        try {
+            if (target.equals(path)) {
+                file.force();
+                return;
+            }
+            var created = MappedShapeFile.create(target, layouts);
+            shapes.forEach(created::append);
+            created.force();
+            attach(created, target);
+        } catch (IOException e) {
+            throw new RuntimeException("Error saving shapes to file", e);
+        }
+    }
+
+    //Los avisos del canvas se aplican sobre el fichero adjunto, asi que el guardado completo
+    //se hace en el hilo del canvas para que ningun aviso quede entre el snapshot y el cambio de fichero
+    @Override
+    public synchronized CompletableFuture<Void> saveAsync(String filename, Iterable<Shape> shapes, Executor executor) {
+        try {
+            saveEach(filename, shapes);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    //Igual que al guardar: leer el fichero mapeado es rapido y, hecho en el hilo del canvas
+    //(que tiene su lock), ningun cambio puede colarse entre la lectura y el attach
+    @Override
+    public synchronized CompletableFuture<List<Shape>> loadAsync(String filename, Executor executor) {
+        try {
+            return CompletableFuture.completedFuture(load(filename));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public synchronized void loadEach(String filename, Consumer<Shape> consumer) {
+        Path target = Path.of(filename).toAbsolutePath();
+        try {
+            if (!Files.exists(target)) {
+                throw new IOException("No existe el fichero " + filename);
+            }
+            if (target.equals(path)) {
+                file.forEach(consumer);
+                return;
+            }
+            try (var opened = MappedShapeFile.open(target, layouts)) {
+                opened.forEach(consumer);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading shapes from file", e);
+        }
+    }
+
+    @Override
+    public synchronized void attach(String filename) {
+        try {
+            if (filename == null) {
+                attach(null, null);
+                return;
+            }
+            Path target = Path.of(filename).toAbsolutePath();
+            if (!target.equals(path)) {
+                attach(MappedShapeFile.open(target, layouts), target);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error opening shapes file", e);
+        }
+    }
+
+    @Override
+    public synchronized String attached() {
+        return path == null ? null : path.toString();
+    }
+
+    @Override
+    public synchronized void shapeAdded(Shape shape) {
+        if (file != null) {
+            file.append(shape);
+        }
+    }
+
+    @Override
+    public synchronized void shapeMoved(Shape shape, double dx, double dy) {
+        if (file != null) {
+            file.update(shape);
+        }
+    }
+
+    @Override
+    public synchronized void shapeUpdated(Shape shape) {
+        if (file != null) {
+            file.update(shape);
+        }
+    }
+
+    @Override
+    public synchronized void shapeRemoved(Shape shape) {
+        if (file != null) {
+            file.remove(shape.getId());
+        }
+    }
+
+    private void attach(MappedShapeFile opened, Path target) throws IOException {
+        if (file != null && file != opened) {
+            file.close();
+        }
+        file = opened;
+        path = target;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.paint.storage;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.example.paint.shapes.Shape;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClassResolver;
+
+//Describe una figura como (UUID, double...) a partir de su constructor,
+//de modo que los formatos binarios admiten nuevos subtipos sin codigo extra
+public class ShapeLayout {
+    private final String name;
+    private final Class<? extends Shape> type;
+    private final String[] fields;
+    private final MethodHandle[] getters;
+    private final MethodHandle constructor;
+
+    private ShapeLayout(String name, Class<? extends Shape> type, String[] fields,
+            MethodHandle[] getters, MethodHandle constructor) {
+        this.name = name;
+        this.type = type;
+        this.fields = fields;
+        this.getters = getters;
+        this.constructor = constructor;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<? extends Shape> getType() {
+        return type;
+    }
+
+    public String[] getFields() {
+        return fields.clone();
+    }
+
+    public int size() {
+        return fields.length;
+    }
+
+    public int indexOf(String field) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].equals(field)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(name + " no tiene el campo " + field);
+    }
+
+    public double get(Shape shape, int field) {
+        try {
+            return (double) getters[field].invokeExact(shape);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Error reading " + fields[field] + " of " + name, e);
+        }
+    }
+
+    public void read(Shape shape, double[] values) {
+        for (int i = 0; i < getters.length; i++) {
+            values[i] = get(shape, i);
+        }
+    }
+
+    public Shape create(UUID id, double[] values) {
+        try {
+            return (Shape) constructor.invokeExact(id, values);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Error creating " + name, e);
+        }
+    }
+
+    //Subtipos registrados en el mapper (NamedType), en el mismo orden para todos los formatos
+    public static Map<Class<?>, ShapeLayout> fromMapper(ObjectMapper mapper) {
+        var config = mapper.getDeserializationConfig();
+        var base = AnnotatedClassResolver.resolveWithoutSuperTypes(config, Shape.class);
+        var types = new ArrayList<>(mapper.getSubtypeResolver().collectAndResolveSubtypesByTypeId(config, base));
+        types.sort((a, b) -> String.valueOf(a.getName()).compareTo(String.valueOf(b.getName())));
+
+        Map<Class<?>, ShapeLayout> layouts = new LinkedHashMap<>();
+        for (var named : types) {
+            Class<?> clazz = named.getType();
+            if (!named.hasName() || !Shape.class.isAssignableFrom(clazz)
+                    || clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
+                continue;
+            }
+            layouts.put(clazz, of(named.getName(), clazz.asSubclass(Shape.class)));
+        }
+        return layouts;
+    }
+
+    public static ShapeLayout of(String name, Class<? extends Shape> type) {
+        Constructor<?> constructor = Arrays.stream(type.getConstructors())
+                .filter(ShapeLayout::isLayoutConstructor)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(
+                        type.getName() + " necesita un constructor (UUID, double...)"));
+        try {
+            var lookup = MethodHandles.publicLookup();
+            var parameters = constructor.getParameters();
+            List<String> fields = new ArrayList<>();
+            List<MethodHandle> getters = new ArrayList<>();
+            for (int i = 1; i < parameters.length; i++) {
+                String field = parameters[i].getName();
+                fields.add(field);
+                getters.add(lookup.findVirtual(type, getterName(field), MethodType.methodType(double.class))
+                                  .asType(MethodType.methodType(double.class, Shape.class)));
+            }
+            MethodHandle create = lookup.unreflectConstructor(constructor)
+                    .asSpreader(double[].class, fields.size())
+                    .asType(MethodType.methodType(Shape.class, UUID.class, double[].class));
+            return new ShapeLayout(name, type, fields.toArray(new String[0]),
+                    getters.toArray(new MethodHandle[0]), create);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se puede describir " + type.getName(), e);
+        }
+    }
+
+    private static boolean isLayoutConstructor(Constructor<?> constructor) {
+        var types = constructor.getParameterTypes();
+        if (types.length == 0 || types[0] != UUID.class) {
+            return false;
+        }
+        for (int i = 1; i < types.length; i++) {
+            if (types[i] != double.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getterName(String field) {
+        return "get" + Character.toUpperCase(field.charAt(0)) + field.substring(1);
+    }
+}
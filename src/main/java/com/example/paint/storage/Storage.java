@@ -1,10 +1,56 @@
 package com.example.paint.storage;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import com.example.paint.shapes.Shape;
 
 public interface Storage {
     void save(String filename, List<Shape> shapes);
     List<Shape> load(String filename);    
+
+    default void saveEach(String filename, Iterable<Shape> shapes) {
+        List<Shape> list = new ArrayList<>();
+        shapes.forEach(list::add);
+        save(filename, list);
+    }
+
+    default void loadEach(String filename, Consumer<Shape> consumer) {
+        load(filename).forEach(consumer);
+    }
+
+    default CompletableFuture<Void> saveAsync(String filename, Iterable<Shape> shapes, Executor executor) {
+        return CompletableFuture.runAsync(() -> saveEach(filename, shapes), executor);
+    }
+
+    default CompletableFuture<List<Shape>> loadAsync(String filename, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> load(filename), executor);
+    }
+
+    //Los formatos que persisten cada cambio lo hacen sobre un fichero adjunto. El canvas adjunta
+    //el fichero cargado justo despues de sustituir sus figuras; null suelta el actual
+    default void attach(String filename) {
+    }
+
+    //Fichero adjunto, o null
+    default String attached() {
+        return null;
+    }
+
+    //Avisos del canvas para los formatos que persisten cada cambio por separado
+    default void shapeAdded(Shape shape) {
+    }
+
+    default void shapeMoved(Shape shape, double dx, double dy) {
+    }
+
+    default void shapeRemoved(Shape shape) {
+    }
+
+    //Cambio de cualquier otro campo (p.ej. escalar)
+    default void shapeUpdated(Shape shape) {
+    }
 } 
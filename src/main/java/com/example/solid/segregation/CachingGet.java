@@ -0,0 +1,153 @@
+package com.example.solid.segregation;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Cache de lectura delante de un Get lento: LRU con un maximo de entradas y caducidad por tiempo.
+ * Varios fallos simultaneos del mismo id comparten una sola llamada al backend (single-flight),
+ * salvo que haya habido una invalidacion desde que empezo: esa carga puede traer el valor de antes.
+ * Los null (id inexistente) no se guardan.
+ */
+public class CachingGet<T, ID> implements Get<T, ID> {
+
+    public record CacheStats(long hits, long misses, long loads, long evictions) {
+    }
+
+    private record Entry<T>(T value, long loadedAt) {
+    }
+
+    private final Get<T, ID> backend;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    //accessOrder = true: el primero es el menos usado recientemente
+    private final LinkedHashMap<ID, Entry<T>> entries;
+    //carga en curso de cada id; invalidar el id la quita: quien llegue despues no se une a ella
+    //y, al terminar, ya no es la registrada y no deja en cache un valor que puede ser viejo
+    private final Map<ID, CompletableFuture<T>> loading = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingGet(Get<T, ID> backend, int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de la cache debe ser positivo: " + maxSize);
+        }
+        this.backend = backend;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ID, Entry<T>> eldest) {
+                if (size() > CachingGet.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public T get(ID id) {
+        T cached = cached(id);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> flight = loading.putIfAbsent(id, mine);
+        if (flight != null) {
+            return join(flight);
+        }
+        try {
+            loads.increment();
+            T value = backend.get(id);
+            if (value != null) {
+                store(id, value, mine);
+            }
+            mine.complete(value);
+            return value;
+        } catch (Throwable e) {
+            //tambien un Error: si no, los que esperan esta carga se quedarian bloqueados
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(id, mine);
+        }
+    }
+
+    public void invalidate(ID id) {
+        lock.lock();
+        try {
+            entries.remove(id);
+            loading.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            loading.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), loads.sum(), evictions.sum());
+    }
+
+    private T cached(ID id) {
+        lock.lock();
+        try {
+            Entry<T> entry = entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.loadedAt() > ttlNanos) {
+                entries.remove(id);
+                evictions.increment();
+                return null;
+            }
+            return entry.value();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Se comprueba con el lock que la carga sigue registrada: una invalidacion posterior espera a este put y lo borra
+    private void store(ID id, T value, CompletableFuture<T> flight) {
+        lock.lock();
+        try {
+            if (loading.get(id) == flight) {
+                entries.put(id, new Entry<>(value, System.nanoTime()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.solid.segregation;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+//CachingGet sobre un Repository: las escrituras van al backend y despues invalidan el id en la cache
+public class CachingRepository<T, ID> extends CachingGet<T, ID> implements Repository<T, ID> {
+
+    private final Repository<T, ID> backend;
+    private final Function<T, ID> idOf;
+
+    public CachingRepository(Repository<T, ID> backend, Function<T, ID> idOf, int maxSize, Duration ttl) {
+        super(backend, maxSize, ttl);
+        this.backend = backend;
+        this.idOf = idOf;
+    }
+
+    @Override
+    public void add(T entity) {
+        backend.add(entity);
+        invalidate(idOf.apply(entity));
+    }
+
+    @Override
+    public void update(T entity) {
+        backend.update(entity);
+        invalidate(idOf.apply(entity));
+    }
+
+    @Override
+    public void remove(T entity) {
+        backend.remove(entity);
+        invalidate(idOf.apply(entity));
+    }
+}
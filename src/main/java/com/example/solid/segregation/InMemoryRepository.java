@@ -0,0 +1,267 @@
+package com.example.solid.segregation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import com.example.core.ChangeNotifier;
+import com.example.core.EntityBase;
+
+/*
+ * Repositorio en memoria para cualquier EntityBase. Las entidades se guardan por id en un
+ * ConcurrentHashMap y se pueden declarar indices secundarios por igualdad (index) o por rango de
+ * un valor numerico (rangeIndex) para buscar sin recorrerlas todas.
+ * Las lecturas no bloquean; las escrituras se serializan para que los indices no se desincronicen.
+ * Los indices guardan la clave que tenia la entidad en su ultimo add/update: quien la modifique
+ * en sitio debe llamar a update para que se reindexe. Las entidades que implementan ChangeNotifier
+ * (valores derivados, como el precio de una pizza) se reindexan solas cuando avisan de un cambio.
+ */
+public class InMemoryRepository<T extends EntityBase> implements Repository<T, UUID> {
+
+    private final Map<UUID, T> entities = new ConcurrentHashMap<>();
+    //concurrente: las lecturas lo consultan sin el lock de escritura
+    private final Map<String, Index<T, ?>> indexes = new ConcurrentHashMap<>();
+    //avisos registrados en las entidades ChangeNotifier guardadas, para quitarlos al sustituirlas
+    private final Map<UUID, Runnable> listeners = new HashMap<>();
+    private final ReentrantLock writes = new ReentrantLock();
+
+    //Declarar un indice por igualdad (p.ej. por nombre) y rellenarlo con lo que ya haya
+    public InMemoryRepository<T> index(String name, Function<T, ?> key) {
+        return declare(name, new Index<>(key, new ConcurrentHashMap<>()));
+    }
+
+    //Declarar un indice ordenado por un valor numerico (p.ej. por precio) para buscar por rango
+    public InMemoryRepository<T> rangeIndex(String name, ToDoubleFunction<T> key) {
+        return declare(name, new Index<T, Double>(entity -> key.applyAsDouble(entity), new ConcurrentSkipListMap<>()));
+    }
+
+    @Override
+    public T get(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("El id no puede ser nulo");
+        }
+        return entities.get(id);
+    }
+
+    public int size() {
+        return entities.size();
+    }
+
+    public List<T> findAll() {
+        return new ArrayList<>(entities.values());
+    }
+
+    public List<T> findBy(String index, Object key) {
+        return resolve(indexNamed(index).byKey.get(key));
+    }
+
+    //Entidades con la clave del indice en [from, to]
+    public List<T> findInRange(String index, double from, double to) {
+        var byKey = indexNamed(index).byKey;
+        if (!(byKey instanceof NavigableMap)) {
+            throw new IllegalArgumentException("El indice " + index + " no es de rango");
+        }
+        @SuppressWarnings("unchecked")
+        var sorted = (NavigableMap<Double, Set<UUID>>) byKey;
+        List<T> found = new ArrayList<>();
+        for (Set<UUID> ids : sorted.subMap(from, true, to, true).values()) {
+            found.addAll(resolve(ids));
+        }
+        return found;
+    }
+
+    @Override
+    public void add(T entity) {
+        addAll(List.of(entity));
+    }
+
+    @Override
+    public void update(T entity) {
+        updateAll(List.of(entity));
+    }
+
+    @Override
+    public void remove(T entity) {
+        removeAll(List.of(entity));
+    }
+
+    //Las operaciones por lotes toman el lock de escritura una sola vez.
+    //Se comprueba todo el lote antes de aplicar nada: si falla, no cambia ninguna entidad
+    public void addAll(Collection<T> batch) {
+        writes.lock();
+        try {
+            Set<UUID> ids = new HashSet<>();
+            for (T entity : batch) {
+                if (entities.containsKey(idOf(entity)) || !ids.add(entity.getId())) {
+                    throw new IllegalArgumentException("Ya existe una entidad con id " + entity.getId());
+                }
+            }
+            for (T entity : batch) {
+                store(entity);
+            }
+        } finally {
+            writes.unlock();
+        }
+    }
+
+    public void updateAll(Collection<T> batch) {
+        writes.lock();
+        try {
+            for (T entity : batch) {
+                if (!entities.containsKey(idOf(entity))) {
+                    throw new IllegalArgumentException("No existe una entidad con id " + entity.getId());
+                }
+            }
+            for (T entity : batch) {
+                store(entity);
+            }
+        } finally {
+            writes.unlock();
+        }
+    }
+
+    public void removeAll(Collection<T> batch) {
+        writes.lock();
+        try {
+            batch.forEach(this::idOf);
+            for (T entity : batch) {
+                T removed = entities.remove(entity.getId());
+                if (removed != null) {
+                    unlisten(removed);
+                    indexes.values().forEach(index -> index.remove(entity.getId()));
+                }
+            }
+        } finally {
+            writes.unlock();
+        }
+    }
+
+    //Vuelve a calcular las claves de la entidad guardada (no de otra instancia con su id)
+    public void reindex(T entity) {
+        writes.lock();
+        try {
+            if (entities.get(idOf(entity)) == entity) {
+                indexes.values().forEach(index -> index.put(entity));
+            }
+        } finally {
+            writes.unlock();
+        }
+    }
+
+    private void store(T entity) {
+        T previous = entities.put(entity.getId(), entity);
+        if (previous != entity) {
+            if (previous != null) {
+                unlisten(previous);
+            }
+            if (entity instanceof ChangeNotifier notifier) {
+                Runnable listener = () -> reindex(entity);
+                listeners.put(entity.getId(), listener);
+                notifier.addChangeListener(listener);
+            }
+        }
+        indexes.values().forEach(index -> index.put(entity));
+    }
+
+    private void unlisten(T entity) {
+        Runnable listener = listeners.remove(entity.getId());
+        if (listener != null) {
+            ((ChangeNotifier) entity).removeChangeListener(listener);
+        }
+    }
+
+    private UUID idOf(T entity) {
+        if (entity.getId() == null) {
+            throw new IllegalArgumentException("La entidad no tiene id");
+        }
+        return entity.getId();
+    }
+
+    private InMemoryRepository<T> declare(String name, Index<T, ?> index) {
+        writes.lock();
+        try {
+            if (indexes.containsKey(name)) {
+                throw new IllegalArgumentException("El indice " + name + " ya existe");
+            }
+            entities.values().forEach(index::put);
+            indexes.put(name, index);
+            return this;
+        } finally {
+            writes.unlock();
+        }
+    }
+
+    private Index<T, ?> indexNamed(String name) {
+        var index = indexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("No existe el indice " + name);
+        }
+        return index;
+    }
+
+    //Un indice puede ir un instante por detras del mapa principal: se descartan ids ya borrados
+    private List<T> resolve(Set<UUID> ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        List<T> found = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            T entity = entities.get(id);
+            if (entity != null) {
+                found.add(entity);
+            }
+        }
+        return found;
+    }
+
+    private static final class Index<T extends EntityBase, K> {
+        private final Function<T, K> key;
+        private final Map<K, Set<UUID>> byKey;
+        //clave con la que esta indexada cada entidad, para sacarla al actualizar o borrar
+        private final Map<UUID, K> keyOf = new ConcurrentHashMap<>();
+
+        Index(Function<T, K> key, Map<K, Set<UUID>> byKey) {
+            this.key = key;
+            this.byKey = byKey;
+        }
+
+        void put(T entity) {
+            UUID id = entity.getId();
+            K current = key.apply(entity);
+            K previous = keyOf.get(id);
+            if (previous != null && Objects.equals(previous, current)) {
+                return;
+            }
+            if (previous != null) {
+                remove(id);
+            }
+            if (current != null) {
+                byKey.computeIfAbsent(current, k -> ConcurrentHashMap.newKeySet()).add(id);
+                keyOf.put(id, current);
+            }
+        }
+
+        void remove(UUID id) {
+            K previous = keyOf.remove(id);
+            if (previous == null) {
+                return;
+            }
+            byKey.computeIfPresent(previous, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
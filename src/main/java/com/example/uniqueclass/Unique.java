@@ -3,10 +3,15 @@ package com.example.uniqueclass;
 
 import java.util.UUID;
 
+import com.example.core.UuidHash;
+
+//Mismo esquema que EntityBase (UuidHash): hash calculado una vez e identidad si no hay id
 public class Unique {
     private final UUID id;
+    private final int hash;
     public Unique(UUID id){
         this.id =id;
+        this.hash = UuidHash.hash(id, this);
     }
     UUID getId(){
         return id;
@@ -14,8 +19,9 @@ public class Unique {
     @Override
     public int hashCode() {
         
-        return id.hashCode();
+        return hash;
 
+        //return id.hashCode();
         //return Objects.hash(id);
 
 
@@ -26,9 +32,12 @@ public class Unique {
     }
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
         //https://openjdk.org/jeps/394
         if(obj instanceof Unique e){
-            return e.id.equals(id);
+            return UuidHash.sameId(id, e.id);
         }
         return false;
 
@@ -0,0 +1,67 @@
+package com.example.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class EntitySetTest {
+
+    private static final class Item extends EntityBase {
+        Item(UUID id) {
+            super(id);
+        }
+
+        Item() {
+            super();
+        }
+    }
+
+    @Test
+    public void keepsTheFirstInstanceForAnId() {
+        UUID id = UUID.randomUUID();
+        Item first = new Item(id);
+        Item second = new Item(id);
+        EntitySet<Item> set = new EntitySet<>();
+        assertTrue(set.add(first));
+        assertFalse(set.add(second));
+        assertTrue(set.contains(second));
+        assertSame(first, set.find(id));
+        assertSame(first, set.removeStored(second));
+        assertTrue(set.isEmpty());
+    }
+
+    //sin id se comparan por identidad, como EntityBase.equals
+    @Test
+    public void entitiesWithoutIdAreKeptByIdentity() {
+        Item withId = new Item(UUID.randomUUID());
+        Item first = new Item();
+        Item second = new Item();
+        EntitySet<Item> set = new EntitySet<>(List.of(withId, first));
+        assertTrue(set.add(second));
+        assertFalse(set.add(first));
+        assertEquals(3, set.size());
+        assertEquals(new HashSet<>(List.of(withId, first, second)), new HashSet<>(set));
+
+        EntitySet<Item> copy = new EntitySet<>(set);
+        assertSame(first, set.removeStored(first));
+        assertFalse(set.contains(first));
+        assertTrue(set.contains(second));
+        assertTrue(copy.contains(first));
+
+        Iterator<Item> items = set.iterator();
+        while (items.hasNext()) {
+            items.next();
+            items.remove();
+        }
+        assertTrue(set.isEmpty());
+        assertEquals(3, copy.size());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Test;
+
+//Contra HashMap con muchos borrados: las marcas de borrado no pueden cortar las cadenas de sondeo
+public class UuidMapTest {
+
+    @Test
+    public void matchesHashMapWithRandomIds() {
+        fuzz(new Random(60), random -> new UUID(random.nextLong(), random.nextLong()));
+    }
+
+    //ids secuenciales: hashes muy parecidos y colisiones en cadena
+    @Test
+    public void matchesHashMapWithSequentialIds() {
+        fuzz(new Random(61), random -> new UUID(0, random.nextInt(5_000)));
+    }
+
+    @Test
+    public void iteratorRemoveLeavesTheRestReachable() {
+        UuidMap<String> map = new UuidMap<>();
+        Map<UUID, String> expected = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = new UUID(i % 7, i);
+            map.put(id, id.toString());
+            expected.put(id, id.toString());
+        }
+        Iterator<String> values = map.iterator();
+        while (values.hasNext()) {
+            String value = values.next();
+            if (value.hashCode() % 3 == 0) {
+                values.remove();
+                expected.remove(UUID.fromString(value));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (var entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(new HashSet<>(expected.values()), values(map));
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        UuidMap<String> map = new UuidMap<>();
+        UUID kept = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+        map.put(kept, "a");
+        map.put(removed, "b");
+        UuidMap<String> copy = new UuidMap<>(map);
+        map.remove(removed);
+        assertEquals("b", copy.get(removed));
+        copy.remove(kept);
+        assertEquals("a", map.get(kept));
+        assertNull(copy.get(kept));
+    }
+
+    private interface Ids {
+        UUID next(Random random);
+    }
+
+    private static void fuzz(Random random, Ids ids) {
+        UuidMap<Integer> map = new UuidMap<>();
+        Map<UUID, Integer> expected = new HashMap<>();
+        List<UUID> known = new ArrayList<>();
+        for (int i = 0; i < 300_000; i++) {
+            UUID id = known.isEmpty() || random.nextInt(3) == 0 ? ids.next(random) : known.get(random.nextInt(known.size()));
+            switch (random.nextInt(4)) {
+                case 0, 1 -> {
+                    assertEquals(expected.put(id, i), map.put(id, i));
+                    known.add(id);
+                }
+                case 2 -> assertEquals(expected.remove(id), map.remove(id));
+                default -> {
+                    assertEquals(expected.get(id), map.get(id));
+                    assertEquals(expected.containsKey(id), map.containsKey(id));
+                }
+            }
+            assertEquals(expected.size(), map.size());
+            if (i % 50_000 == 0) {
+                assertEquals(new HashSet<>(expected.values()), values(map));
+            }
+        }
+        for (UUID id : known) {
+            assertEquals(expected.get(id), map.get(id));
+        }
+        map.clear();
+        assertFalse(map.iterator().hasNext());
+        assertEquals(0, map.size());
+    }
+
+    private static HashSet<Object> values(UuidMap<?> map) {
+        HashSet<Object> values = new HashSet<>();
+        map.forEach(values::add);
+        return values;
+    }
+}
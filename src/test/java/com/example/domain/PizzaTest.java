@@ -0,0 +1,98 @@
+package com.example.domain;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class PizzaTest {
+
+    //el precio tras muchas altas y bajas es el mismo que sumando los ingredientes de cero
+    @Test
+    public void priceDoesNotDriftAfterAddsAndRemoves() {
+        Ingredient base = Ingredient.create(UUID.randomUUID(), "masa", 0.1);
+        Ingredient cheese = Ingredient.create(UUID.randomUUID(), "queso", 0.7);
+        Ingredient tomato = Ingredient.create(UUID.randomUUID(), "tomate", 1e-3);
+        Pizza pizza = Pizza.create(UUID.randomUUID(), "margarita", "", "", Set.of(base));
+        for (int i = 0; i < 10_000; i++) {
+            pizza.addIngedient(cheese);
+            pizza.getPrice();
+            pizza.addIngedient(tomato);
+            pizza.getPrice();
+            pizza.removeIngredient(cheese);
+            pizza.removeIngredient(tomato);
+        }
+        pizza.addIngedient(tomato);
+        Pizza fresh = Pizza.create(UUID.randomUUID(), "margarita", "", "", Set.of(base, tomato));
+        assertEquals(Double.doubleToLongBits(fresh.getPrice()), Double.doubleToLongBits(pizza.getPrice()));
+    }
+
+    @Test
+    public void priceFollowsIngredientCost() {
+        Ingredient cheese = Ingredient.create(UUID.randomUUID(), "queso", 1);
+        Pizza pizza = Pizza.create(UUID.randomUUID(), "queso", "", "", Set.of(cheese));
+        assertEquals(1.2, pizza.getPrice(), 1e-12);
+        cheese.update("queso", 2);
+        assertEquals(2.4, pizza.getPrice(), 1e-12);
+    }
+
+    //dos instancias con el mismo id (p. ej. cargadas dos veces) se recalculan por separado
+    @Test
+    public void pizzasWithTheSameIdAreRepricedIndependently() {
+        UUID id = UUID.randomUUID();
+        Ingredient cheese = Ingredient.create(UUID.randomUUID(), "queso", 1);
+        Ingredient tomato = Ingredient.create(UUID.randomUUID(), "tomate", 1);
+        Pizza first = Pizza.create(id, "queso", "", "", Set.of(cheese, tomato));
+        Pizza second = Pizza.create(id, "queso", "", "", Set.of(cheese, tomato));
+        first.getPrice();
+        second.getPrice();
+
+        cheese.update("queso", 2);
+        assertEquals(3.6, first.getPrice(), 1e-12);
+        assertEquals(3.6, second.getPrice(), 1e-12);
+
+        first.removeIngredient(tomato);
+        tomato.update("tomate", 3);
+        assertEquals(2.4, first.getPrice(), 1e-12);
+        assertEquals(6.0, second.getPrice(), 1e-12);
+    }
+
+    //otro hilo que esta sumando los costes cuando uno cambia no deja guardada la suma anterior
+    @Test
+    public void concurrentReaderDoesNotKeepAStaleCost() throws Exception {
+        CountDownLatch summing = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        Ingredient cheese = new Ingredient(UUID.randomUUID(), "queso", 1) {
+            @Override
+            public double getCost() {
+                double cost = super.getCost();
+                if (first.getAndSet(false)) {
+                    summing.countDown();
+                    await(changed);
+                }
+                return cost;
+            }
+        };
+        Pizza pizza = Pizza.create(UUID.randomUUID(), "queso", "", "", Set.of(cheese));
+        Thread reader = new Thread(pizza::getPrice);
+        reader.start();
+        summing.await();
+        cheese.update("queso", 2);
+        changed.countDown();
+        reader.join();
+        assertEquals(2.4, pizza.getPrice(), 1e-12);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.paint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import com.example.paint.core.InputWriter;
+import com.example.paint.shapes.Circle;
+import com.example.paint.shapes.Rectangle;
+import com.example.paint.shapes.Shape;
+import com.example.paint.storage.Storage;
+
+//Utilidades comunes de los tests y los benchmarks: figuras aleatorias reproducibles, un Storage
+//vacio y salidas en memoria o descartadas
+public final class Fixtures {
+    private Fixtures() {
+    }
+
+    public static List<Shape> randomShapes(Random random, int count) {
+        List<Shape> shapes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shapes.add(randomShape(random));
+        }
+        return shapes;
+    }
+
+    //Sobre todo figuras pequeñas, y alguna que cubre muchas celdas de la rejilla
+    public static Shape randomShape(Random random) {
+        UUID id = new UUID(random.nextLong(), random.nextLong());
+        double x = random.nextDouble() * 2000 - 1000;
+        double y = random.nextDouble() * 2000 - 1000;
+        double size = random.nextInt(20) == 0 ? random.nextDouble() * 1500 : random.nextDouble() * 50;
+        return random.nextBoolean()
+                ? new Circle(id, x, y, size)
+                : new Rectangle(id, x, y, size, random.nextDouble() * 50);
+    }
+
+    //Sin fichero adjunto: los avisos del canvas no hacen nada
+    public static Storage noStorage() {
+        return new Storage() {
+            @Override
+            public void save(String filename, List<Shape> shapes) {
+            }
+
+            @Override
+            public List<Shape> load(String filename) {
+                return List.of();
+            }
+        };
+    }
+
+    public static RecordingWriter writer() {
+        return new RecordingWriter();
+    }
+
+    public static final class RecordingWriter implements InputWriter {
+        private final StringBuilder out = new StringBuilder();
+
+        @Override
+        public synchronized void print(Object message) {
+            out.append(message);
+        }
+
+        @Override
+        public synchronized void println(Object message) {
+            out.append(message).append('\n');
+        }
+
+        @Override
+        public synchronized void printf(String format, Object... args) {
+            out.append(String.format(format, args));
+        }
+
+        public synchronized String text() {
+            return out.toString();
+        }
+    }
+
+    //No guarda el texto (para los benchmarks) pero si convierte cada mensaje, como haria la consola
+    public static final class NullWriter implements InputWriter {
+        private long chars;
+
+        @Override
+        public void print(Object message) {
+            chars += String.valueOf(message).length();
+        }
+
+        @Override
+        public void println(Object message) {
+            chars += String.valueOf(message).length() + 1;
+        }
+
+        @Override
+        public void printf(String format, Object... args) {
+            chars += String.format(format, args).length();
+        }
+
+        public long chars() {
+            return chars;
+        }
+    }
+}
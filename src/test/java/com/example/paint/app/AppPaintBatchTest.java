@@ -0,0 +1,56 @@
+package com.example.paint.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.example.json.JsonCodec;
+import com.example.paint.Fixtures;
+import com.example.paint.canvas.CanvasIndexed;
+import com.example.paint.commands.CommandHistory;
+import com.example.paint.storage.BinaryStorage;
+
+public class AppPaintBatchTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    //un save o load que falla en segundo plano cuenta como error y cambia el codigo de salida
+    @Test
+    public void failedBackgroundIoCountsAsAnError() throws Exception {
+        String missing = folder.getRoot().toPath().resolve("no-existe").toString();
+        String saved = folder.getRoot().toPath().resolve("ok.bin").toString();
+        String script = String.join("\n",
+                "add circle 0 0 1",
+                "load " + missing + "/x.bin",
+                "save " + missing + "/dir/y.bin",
+                "save " + saved,
+                "add circle 1 1 1");
+        var writer = Fixtures.writer();
+        var app = new AppPaintBatch(new BufferedReader(new StringReader(script)), writer,
+                new CanvasIndexed(new BinaryStorage(JsonCodec.get().getMapper()), writer), new CommandHistory(10));
+
+        app.run();
+
+        assertTrue(writer.text(), writer.text().contains("3 comandos (2 errores)"));
+        assertEquals(1, app.getExitStatus());
+    }
+
+    @Test
+    public void successfulScriptExitsWithZero() {
+        String saved = folder.getRoot().toPath().resolve("ok.bin").toString();
+        var writer = Fixtures.writer();
+        var app = new AppPaintBatch(new BufferedReader(new StringReader("add circle 0 0 1\nsave " + saved + "\nload " + saved)),
+                writer, new CanvasIndexed(new BinaryStorage(JsonCodec.get().getMapper()), writer), new CommandHistory(10));
+
+        app.run();
+
+        assertTrue(writer.text(), writer.text().contains("3 comandos (0 errores)"));
+        assertEquals(0, app.getExitStatus());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.paint.canvas;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.example.json.JsonCodec;
+import com.example.paint.Fixtures;
+import com.example.paint.shapes.Shape;
+
+//El canvas por columnas debe comportarse igual que la lista de referencia, tambien tras compactar las bajas
+public class CanvasColumnarTest {
+
+    @Test
+    public void behavesLikeTheListCanvas() {
+        Random random = new Random(15);
+        Canvas expected = new CanvasImplementation(Fixtures.noStorage(), Fixtures.writer());
+        Canvas columnar = new CanvasColumnar(Fixtures.noStorage(), Fixtures.writer(), JsonCodec.get().getMapper());
+        for (int round = 0; round < 4; round++) {
+            for (Shape shape : Fixtures.randomShapes(random, 3000)) {
+                expected.addShape(shape.copy());
+                columnar.addShape(shape.copy());
+            }
+            List<Shape> shapes = expected.getShapes();
+            //mas de la mitad de bajas: fuerza la compactacion de filas
+            for (int i = 0; i < shapes.size() * 6 / 10; i++) {
+                var id = shapes.get(random.nextInt(shapes.size())).getId();
+                expected.removeShape(id);
+                columnar.removeShape(id);
+            }
+            for (int i = 0; i < 500; i++) {
+                var id = shapes.get(random.nextInt(shapes.size())).getId();
+                expected.moveShape(id, 3, -7);
+                columnar.moveShape(id, 3, -7);
+            }
+            expected.scaleShapes(ShapeFilters.inRegion(-200, -200, 200, 200), 1.5);
+            columnar.scaleShapes(ShapeFilters.inRegion(-200, -200, 200, 200), 1.5);
+
+            assertEquals(texts(expected.getShapes()), texts(columnar.getShapes()));
+            for (Shape shape : shapes) {
+                assertEquals(expected.findShape(shape.getId()).map(Shape::toString),
+                        columnar.findShape(shape.getId()).map(Shape::toString));
+            }
+            assertStats(expected.stats(), columnar.stats());
+        }
+    }
+
+    //Las areas se suman en otro orden: iguales salvo redondeo
+    static void assertStats(ShapeStats expected, ShapeStats actual) {
+        assertEquals(expected.count(), actual.count());
+        assertEquals(expected.totalArea(), actual.totalArea(), 1e-9 * expected.totalArea());
+        assertEquals(expected.bounds(), actual.bounds());
+        assertEquals(expected.byType().keySet(), actual.byType().keySet());
+        expected.byType().forEach((type, stats) -> {
+            assertEquals(stats.count(), actual.byType().get(type).count());
+            assertEquals(stats.area(), actual.byType().get(type).area(), 1e-9 * stats.area());
+        });
+    }
+
+    private static List<String> texts(List<Shape> shapes) {
+        return shapes.stream().map(Shape::toString).toList();
+    }
+}
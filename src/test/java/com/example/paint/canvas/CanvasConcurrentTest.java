@@ -0,0 +1,140 @@
+package com.example.paint.canvas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.example.paint.Fixtures;
+import com.example.paint.shapes.Rectangle;
+import com.example.paint.shapes.Shape;
+import com.example.paint.storage.Storage;
+
+public class CanvasConcurrentTest {
+    private static final int SHAPES = 500;
+
+    //Los escritores mantienen x == y y width == height; un lector que viera una figura a medio
+    //mover o escalar romperia la igualdad. Los snapshots deben ver cada figura exactamente una vez
+    @Test
+    public void readersNeverSeeHalfAppliedChanges() throws Exception {
+        Canvas canvas = new CanvasConcurrent(Fixtures.noStorage(), Fixtures.writer());
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < SHAPES; i++) {
+            var shape = new Rectangle(UUID.randomUUID(), i, i, 10, 10);
+            canvas.addShape(shape);
+            ids.add(shape.getId());
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            long seed = w;
+            tasks.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                while (running.get()) {
+                    UUID id = ids.get(random.nextInt(ids.size()));
+                    switch (random.nextInt(3)) {
+                        case 0 -> canvas.moveShape(id, 1, 1);
+                        case 1 -> canvas.moveShapes(List.of(id), -1, -1);
+                        default -> canvas.scaleShapes(ShapeFilters.withIds(List.of(id)), random.nextBoolean() ? 2 : 0.5);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (int r = 0; r < 4; r++) {
+            long seed = 100 + r;
+            tasks.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                while (running.get()) {
+                    check(canvas.findShape(ids.get(random.nextInt(ids.size()))).orElseThrow());
+                    double c = random.nextDouble() * SHAPES;
+                    canvas.findShapesAt(c + 1, c + 1).forEach(CanvasConcurrentTest::check);
+                    canvas.findShapesIn(c, c, c + 20, c + 20).forEach(CanvasConcurrentTest::check);
+                    List<Shape> snapshot = canvas.getShapes();
+                    snapshot.forEach(CanvasConcurrentTest::check);
+                    Set<UUID> seen = new HashSet<>();
+                    snapshot.forEach(shape -> seen.add(shape.getId()));
+                    assertEquals(SHAPES, snapshot.size());
+                    assertEquals(SHAPES, seen.size());
+                    assertEquals(SHAPES, canvas.stats().count());
+                }
+                return null;
+            }));
+        }
+        Thread.sleep(1500);
+        running.set(false);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        canvas.getShapes().forEach(CanvasConcurrentTest::check);
+    }
+
+    //El Storage recibe el aviso con el cambio ya aplicado; en ese momento la copia todavia no
+    //debe estar publicada, o un lector podria haberla visto a medias
+    @Test
+    public void changesArePublishedOnlyWhenComplete() {
+        List<String> published = new ArrayList<>();
+        Canvas[] canvas = new Canvas[1];
+        var storage = new StorageAdapter() {
+            @Override
+            public void shapeMoved(Shape shape, double dx, double dy) {
+                check(shape);
+            }
+
+            @Override
+            public void shapeUpdated(Shape shape) {
+                check(shape);
+            }
+
+            private void check(Shape shape) {
+                if (canvas[0].findShape(shape.getId()).orElseThrow() == shape) {
+                    published.add(shape.toString());
+                }
+            }
+        };
+        canvas[0] = new CanvasConcurrent(storage, Fixtures.writer());
+        var shape = new Rectangle(UUID.randomUUID(), 0, 0, 10, 10);
+        canvas[0].addShape(shape);
+
+        canvas[0].moveShape(shape.getId(), 1, 1);
+        canvas[0].moveShapes(List.of(shape.getId()), 1, 1);
+        canvas[0].scaleShapes(ShapeFilters.all(), 2);
+
+        assertEquals(List.of(), published);
+        assertEquals("Rectangle [id=" + shape.getId() + ", area=400.0, x=2.0, width=20.0, y=2.0, height=20.0]",
+                canvas[0].findShape(shape.getId()).orElseThrow().toString());
+    }
+
+    private abstract static class StorageAdapter implements Storage {
+        @Override
+        public void save(String filename, List<Shape> shapes) {
+        }
+
+        @Override
+        public List<Shape> load(String filename) {
+            return List.of();
+        }
+    }
+
+    private static void check(Shape shape) {
+        Rectangle rectangle = (Rectangle) shape;
+        assertEquals(rectangle.toString(), rectangle.getX(), rectangle.getY(), 0);
+        assertEquals(rectangle.toString(), rectangle.getWidth(), rectangle.getHeight(), 0);
+    }
+}
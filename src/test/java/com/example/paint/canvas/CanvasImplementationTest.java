@@ -0,0 +1,87 @@
+package com.example.paint.canvas;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import com.example.paint.Fixtures;
+import com.example.paint.shapes.Shape;
+import com.example.paint.storage.Storage;
+
+public class CanvasImplementationTest {
+
+    //Guardado que no termina hasta que la prueba lo completa; se queda con lo que iba a escribir
+    private static final class PendingSave implements Storage {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        Iterable<Shape> saved;
+
+        @Override
+        public CompletableFuture<Void> saveAsync(String filename, Iterable<Shape> shapes, Executor executor) {
+            saved = shapes;
+            return done;
+        }
+
+        @Override
+        public void save(String filename, List<Shape> shapes) {
+        }
+
+        @Override
+        public void saveEach(String filename, Iterable<Shape> shapes) {
+        }
+
+        @Override
+        public List<Shape> load(String filename) {
+            return List.of();
+        }
+
+        @Override
+        public void loadEach(String filename, Consumer<Shape> consumer) {
+        }
+    }
+
+    //Con un guardado en curso las ediciones sustituyen figuras por copias: el orden y los valores
+    //tienen que quedar como en el canvas indexado, y el guardado ver el estado de antes
+    @Test
+    public void editsDuringAPendingSaveKeepOrderAndSnapshot() {
+        PendingSave storage = new PendingSave();
+        Canvas list = new CanvasImplementation(storage, Fixtures.writer());
+        Canvas indexed = new CanvasIndexed(Fixtures.noStorage(), Fixtures.writer());
+        for (Shape shape : Fixtures.randomShapes(new Random(70), 2_000)) {
+            list.addShape(shape.copy());
+            indexed.addShape(shape.copy());
+        }
+        List<String> before = texts(list.getShapes());
+        list.saveToJsonAsync("pendiente", percent -> { });
+
+        Random random = new Random(71);
+        for (int i = 0; i < 200; i++) {
+            List<Shape> shapes = indexed.getShapes();
+            Shape target = shapes.get(random.nextInt(shapes.size()));
+            for (Canvas canvas : List.of(list, indexed)) {
+                switch (i % 5) {
+                    case 0 -> canvas.moveShapes(ShapeFilters.inRegion(-300, -300, 300, 300), 1, -1);
+                    case 1 -> canvas.scaleShapes(ShapeFilters.withIds(List.of(target.getId())), 1.5);
+                    case 2 -> canvas.moveShape(target.getId(), 2, 2);
+                    case 3 -> canvas.removeShape(target.getId());
+                    default -> canvas.addShape(Fixtures.randomShape(new Random(i)));
+                }
+            }
+        }
+        assertEquals(texts(indexed.getShapes()), texts(list.getShapes()));
+        List<Shape> saved = new ArrayList<>();
+        storage.saved.forEach(saved::add);
+        assertEquals(before, texts(saved));
+        storage.done.complete(null);
+    }
+
+    private static List<String> texts(List<Shape> shapes) {
+        return shapes.stream().map(Shape::toString).toList();
+    }
+}
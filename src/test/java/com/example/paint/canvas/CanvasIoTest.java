@@ -0,0 +1,36 @@
+package com.example.paint.canvas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.example.json.JsonCodec;
+import com.example.paint.Fixtures;
+import com.example.paint.storage.BinaryStorage;
+
+public class CanvasIoTest {
+
+    //el fallo de la ultima carga se lanza en la primera espera y no en las siguientes
+    @Test
+    public void awaitPendingIoReportsAFailureOnce() {
+        var mapper = JsonCodec.get().getMapper();
+        List<Canvas> canvases = List.of(
+                new CanvasImplementation(new BinaryStorage(mapper), Fixtures.writer()),
+                new CanvasIndexed(new BinaryStorage(mapper), Fixtures.writer()),
+                new CanvasColumnar(new BinaryStorage(mapper), Fixtures.writer(), mapper),
+                new CanvasConcurrent(new BinaryStorage(mapper), Fixtures.writer()));
+        for (Canvas canvas : canvases) {
+            canvas.loadFromJsonAsync("/no-existe/figuras.bin");
+            try {
+                canvas.awaitPendingIo();
+                fail(canvas.getClass().getSimpleName());
+            } catch (IllegalStateException e) {
+                assertEquals("Error loading shapes from file", e.getMessage());
+            }
+            canvas.awaitPendingIo();
+        }
+    }
+}
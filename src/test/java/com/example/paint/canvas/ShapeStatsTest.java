@@ -0,0 +1,76 @@
+package com.example.paint.canvas;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.example.json.JsonCodec;
+import com.example.paint.Fixtures;
+import com.example.paint.shapes.Bounds;
+import com.example.paint.shapes.Shape;
+
+//Cada canvas calcula el resumen a su manera (ShapeColumns sobre los arrays): todos deben dar lo mismo
+//que Shape.area() y bounds(), por debajo y por encima del umbral del recorrido en paralelo
+public class ShapeStatsTest {
+
+    @Test
+    public void sequentialStatsMatchTheShapes() {
+        check(new Random(30), CanvasBulk.PARALLEL_THRESHOLD / 4);
+    }
+
+    @Test
+    public void parallelStatsMatchTheShapes() {
+        check(new Random(31), CanvasBulk.PARALLEL_THRESHOLD * 3);
+    }
+
+    @Test
+    public void emptyCanvasHasNoBounds() {
+        for (Canvas canvas : canvases()) {
+            CanvasColumnarTest.assertStats(new ShapeStats(0, 0, null, Map.of()), canvas.stats());
+        }
+    }
+
+    private static void check(Random random, int count) {
+        List<Shape> shapes = Fixtures.randomShapes(random, count);
+        //medidas negativas: los extremos de la figura vienen invertidos
+        for (int i = 0; i < shapes.size(); i += 7) {
+            shapes.get(i).scale(-1);
+        }
+        List<Shape> removed = shapes.subList(0, count / 10);
+        ShapeStats expected = stats(shapes.subList(count / 10, count));
+        for (Canvas canvas : canvases()) {
+            shapes.forEach(shape -> canvas.addShape(shape.copy()));
+            removed.forEach(shape -> canvas.removeShape(shape.getId()));
+            CanvasColumnarTest.assertStats(expected, canvas.stats());
+        }
+    }
+
+    private static List<Canvas> canvases() {
+        return List.of(new CanvasImplementation(Fixtures.noStorage(), Fixtures.writer()),
+                new CanvasIndexed(Fixtures.noStorage(), Fixtures.writer()),
+                new CanvasColumnar(Fixtures.noStorage(), Fixtures.writer(), JsonCodec.get().getMapper()),
+                new CanvasConcurrent(Fixtures.noStorage(), Fixtures.writer()));
+    }
+
+    //Directamente sobre las figuras, sin CanvasBulk ni StatsAccumulator
+    private static ShapeStats stats(List<Shape> shapes) {
+        double area = 0;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        Map<String, ShapeStats.TypeStats> byType = new HashMap<>();
+        for (Shape shape : shapes) {
+            Bounds bounds = shape.bounds();
+            area += shape.area();
+            minX = Math.min(minX, bounds.minX());
+            minY = Math.min(minY, bounds.minY());
+            maxX = Math.max(maxX, bounds.maxX());
+            maxY = Math.max(maxY, bounds.maxY());
+            byType.merge(shape.getClass().getSimpleName().toLowerCase(), new ShapeStats.TypeStats(1, shape.area()),
+                    (a, b) -> new ShapeStats.TypeStats(a.count() + b.count(), a.area() + b.area()));
+        }
+        return new ShapeStats(shapes.size(), area, new Bounds(minX, minY, maxX, maxY), byType);
+    }
+}
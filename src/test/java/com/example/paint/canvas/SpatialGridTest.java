@@ -0,0 +1,119 @@
+package com.example.paint.canvas;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.example.paint.Fixtures;
+import com.example.paint.shapes.Bounds;
+import com.example.paint.shapes.Shape;
+
+public class SpatialGridTest {
+
+    @Test
+    public void queriesMatchBruteForce() {
+        Random random = new Random(2);
+        List<Shape> shapes = Fixtures.randomShapes(random, 3000);
+        SpatialGrid grid = new SpatialGrid();
+        shapes.forEach(grid::add);
+        assertQueries(random, grid, shapes);
+    }
+
+    @Test
+    public void queriesMatchBruteForceAfterMovesAndRemovals() {
+        Random random = new Random(3);
+        List<Shape> shapes = Fixtures.randomShapes(random, 3000);
+        SpatialGrid grid = new SpatialGrid(16);
+        shapes.forEach(grid::add);
+        for (int i = 0; i < 2000; i++) {
+            Shape shape = shapes.get(random.nextInt(shapes.size()));
+            if (random.nextInt(4) == 0) {
+                grid.remove(shape);
+                shapes.remove(shape);
+            } else if (random.nextBoolean()) {
+                shape.move(random.nextDouble() * 400 - 200, random.nextDouble() * 400 - 200);
+                grid.update(shape);
+            } else {
+                shape.scale(0.5 + random.nextDouble() * 3);
+                grid.update(shape);
+            }
+        }
+        assertQueries(random, grid, shapes);
+    }
+
+    //Escaladas por un factor negativo: el radio o los lados quedan negativos
+    @Test
+    public void queriesMatchBruteForceWithNegativeSizes() {
+        Random random = new Random(5);
+        List<Shape> shapes = Fixtures.randomShapes(random, 1000);
+        shapes.forEach(shape -> shape.scale(-1));
+        SpatialGrid grid = new SpatialGrid(16);
+        shapes.forEach(grid::add);
+        assertQueries(random, grid, shapes);
+    }
+
+    @Test
+    public void canvasQueriesMatchBruteForce() {
+        Random random = new Random(4);
+        List<Shape> shapes = Fixtures.randomShapes(random, 2000);
+        for (Canvas canvas : List.of(new CanvasImplementation(Fixtures.noStorage(), Fixtures.writer()),
+                new CanvasIndexed(Fixtures.noStorage(), Fixtures.writer()))) {
+            shapes.forEach(shape -> canvas.addShape(shape.copy()));
+            for (int i = 0; i < 500; i++) {
+                canvas.moveShape(shapes.get(random.nextInt(shapes.size())).getId(), 30, -30);
+            }
+            List<Shape> current = canvas.getShapes();
+            for (int i = 0; i < 200; i++) {
+                double x = random.nextDouble() * 2400 - 1200;
+                double y = random.nextDouble() * 2400 - 1200;
+                assertEquals(ids(current.stream().filter(s -> s.contains(x, y)).toList()),
+                        ids(canvas.findShapesAt(x, y)));
+                Bounds area = Bounds.of(x, y, x + random.nextDouble() * 300, y + random.nextDouble() * 300);
+                assertEquals(ids(current.stream().filter(s -> s.intersects(area)).toList()),
+                        ids(canvas.findShapesIn(area.minX(), area.minY(), area.maxX(), area.maxY())));
+            }
+        }
+    }
+
+    private static void assertQueries(Random random, SpatialGrid grid, List<Shape> shapes) {
+        for (int i = 0; i < 500; i++) {
+            double x = random.nextDouble() * 2400 - 1200;
+            double y = random.nextDouble() * 2400 - 1200;
+            List<Shape> at = new ArrayList<>();
+            for (Shape shape : shapes) {
+                if (shape.contains(x, y)) {
+                    at.add(shape);
+                }
+            }
+            assertSame(at, grid.findAt(x, y));
+
+            //areas pequeñas recorren celdas; las enormes pasan al recorrido completo
+            double size = i % 10 == 0 ? random.nextDouble() * 5000 : random.nextDouble() * 200;
+            Bounds area = Bounds.of(x, y, x + size, y + random.nextDouble() * size);
+            List<Shape> in = new ArrayList<>();
+            for (Shape shape : shapes) {
+                if (shape.intersects(area)) {
+                    in.add(shape);
+                }
+            }
+            assertSame(in, grid.findIn(area));
+        }
+    }
+
+    //Mismas figuras, sin importar el orden y sin duplicados
+    private static void assertSame(List<Shape> expected, List<Shape> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(ids(expected), ids(actual));
+    }
+
+    private static List<UUID> ids(List<Shape> shapes) {
+        return shapes.stream().map(Shape::getId).sorted(Comparator.naturalOrder()).collect(Collectors.toList());
+    }
+}
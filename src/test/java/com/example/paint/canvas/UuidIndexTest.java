@@ -0,0 +1,69 @@
+package com.example.paint.canvas;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class UuidIndexTest {
+
+    @Test
+    public void matchesHashMapUnderPutsAndRemovals() {
+        Random random = new Random(14);
+        UuidIndex index = new UuidIndex();
+        Map<UUID, Integer> expected = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            ids.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        for (int op = 0; op < 300_000; op++) {
+            UUID id = ids.get(random.nextInt(ids.size()));
+            long msb = id.getMostSignificantBits();
+            long lsb = id.getLeastSignificantBits();
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    int row = random.nextInt(1_000_000);
+                    index.put(msb, lsb, row);
+                    expected.put(id, row);
+                }
+                case 1 -> {
+                    assertEquals(expected.getOrDefault(id, UuidIndex.ABSENT).intValue(), index.remove(msb, lsb));
+                    expected.remove(id);
+                }
+                default -> assertEquals(expected.getOrDefault(id, UuidIndex.ABSENT).intValue(), index.get(msb, lsb));
+            }
+            assertEquals(expected.size(), index.size());
+        }
+        for (UUID id : ids) {
+            assertEquals(expected.getOrDefault(id, UuidIndex.ABSENT).intValue(),
+                    index.get(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+        }
+    }
+
+    //Sin lapidas: cada baja desplaza hacia atras las entradas de su secuencia de sondeo,
+    //y borrar la mitad de una tabla llena no debe dejar ninguna de las otras inalcanzable
+    @Test
+    public void removalsKeepTheRemainingEntriesReachable() {
+        UuidIndex index = new UuidIndex();
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            index.put(i, 0, i);
+        }
+        for (int i = 0; i < count; i += 2) {
+            assertEquals(i, index.remove(i, 0));
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 == 0 ? UuidIndex.ABSENT : i, index.get(i, 0));
+        }
+        assertEquals(count / 2, index.size());
+        index.clear();
+        assertEquals(UuidIndex.ABSENT, index.get(1, 0));
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.paint.commands;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.example.json.JsonCodec;
+import com.example.paint.Fixtures;
+import com.example.paint.canvas.Canvas;
+import com.example.paint.canvas.CanvasColumnar;
+import com.example.paint.canvas.CanvasConcurrent;
+import com.example.paint.canvas.CanvasImplementation;
+import com.example.paint.canvas.CanvasIndexed;
+import com.example.paint.canvas.ShapeFilters;
+import com.example.paint.shapes.Shape;
+import com.example.paint.storage.BinaryStorage;
+import com.example.paint.storage.JournalStorage;
+import com.example.paint.storage.MappedStorage;
+import com.example.paint.storage.Storage;
+
+//Deshacer deja el canvas exactamente como estaba (valores y orden) y rehacer como quedo el comando
+public class UndoableCommandTest {
+    private static final List<Function<Storage, Canvas>> CANVASES = List.of(
+            storage -> new CanvasImplementation(storage, Fixtures.writer()),
+            storage -> new CanvasIndexed(storage, Fixtures.writer()),
+            storage -> new CanvasColumnar(storage, Fixtures.writer(), JsonCodec.get().getMapper()),
+            storage -> new CanvasConcurrent(storage, Fixtures.writer()));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void addShape() {
+        check((canvas, shapes) -> new CommandAddShape(canvas, Fixtures.randomShape(new Random(20))));
+    }
+
+    @Test
+    public void moveShape() {
+        check((canvas, shapes) -> new CommandMoveShape(canvas, shapes.get(7).getId(), 2.5, -4.0));
+    }
+
+    @Test
+    public void removeShapeKeepsItsPosition() {
+        check((canvas, shapes) -> new CommandRemoveShape(canvas, shapes.get(7).getId()));
+    }
+
+    //Entre la baja y deshacerla se compactan las bajas marcadas: la figura vuelve igualmente a su sitio
+    @Test
+    public void removeShapeKeepsItsPositionAfterACompaction() {
+        for (var factory : CANVASES) {
+            Canvas canvas = factory.apply(Fixtures.noStorage());
+            Fixtures.randomShapes(new Random(27), 3000).forEach(canvas::addShape);
+            List<Shape> shapes = canvas.getShapes();
+            List<String> before = texts(shapes);
+            List<UUID> many = new ArrayList<>();
+            for (int i = 0; i < shapes.size(); i++) {
+                if (i % 3 != 0) {
+                    many.add(shapes.get(i).getId());
+                }
+            }
+            CommandHistory history = new CommandHistory(10);
+            history.execute(new CommandRemoveShape(canvas, shapes.get(3).getId()));
+            history.execute(new CommandRemoveShapes(canvas, Fixtures.writer(), ShapeFilters.withIds(many)));
+            history.undo();
+            history.undo();
+            assertEquals(canvas.getClass().getSimpleName(), before, texts(canvas.getShapes()));
+        }
+    }
+
+    @Test
+    public void moveShapes() {
+        check((canvas, shapes) -> new CommandMoveShapes(canvas, Fixtures.writer(),
+                ShapeFilters.inRegion(-500, -500, 500, 500), 10, 20));
+    }
+
+    //un id repetido se mueve una sola vez y uno que no esta se ignora
+    @Test
+    public void moveShapesByIds() {
+        check((canvas, shapes) -> new CommandMoveShapes(canvas, Fixtures.writer(),
+                List.of(shapes.get(3).getId(), shapes.get(150).getId(), shapes.get(3).getId(), UUID.randomUUID()),
+                10, 20));
+        for (var factory : CANVASES) {
+            Canvas canvas = factory.apply(Fixtures.noStorage());
+            Fixtures.randomShapes(new Random(26), 20).forEach(canvas::addShape);
+            Shape expected = canvas.getShapes().get(5).copy();
+            expected.move(1, 2);
+            List<UUID> moved = canvas.moveShapes(List.of(expected.getId(), expected.getId()), 1, 2);
+            assertEquals(List.of(expected.getId()), moved);
+            assertEquals(expected.toString(), canvas.getShapes().get(5).toString());
+        }
+    }
+
+    @Test
+    public void removeShapesKeepsTheirPositions() {
+        check((canvas, shapes) -> new CommandRemoveShapes(canvas, Fixtures.writer(),
+                ShapeFilters.inRegion(-500, -500, 500, 500)));
+    }
+
+    //un factor sin inverso exacto: dividir al deshacer no devolveria los mismos valores
+    @Test
+    public void scaleShapesRestoresExactValues() {
+        check((canvas, shapes) -> new CommandScaleShapes(canvas, Fixtures.writer(),
+                ShapeFilters.inRegion(-500, -500, 500, 500), 3.7));
+    }
+
+    @Test
+    public void loadFromJsonStorage() throws Exception {
+        Path file = folder.newFolder().toPath().resolve("shapes.bin");
+        new BinaryStorage(JsonCodec.get().getMapper()).save(file.toString(), Fixtures.randomShapes(new Random(21), 40));
+        for (var factory : CANVASES) {
+            Canvas canvas = factory.apply(new BinaryStorage(JsonCodec.get().getMapper()));
+            Fixtures.randomShapes(new Random(22), 30).forEach(canvas::addShape);
+            checkOn(canvas, new CommandLoad(canvas, Fixtures.writer(), file.toString()));
+        }
+    }
+
+    //Deshacer la carga vuelve a adjuntar el fichero anterior y no reescribe el cargado
+    @Test
+    public void loadFromWriteThroughStorageDoesNotRewriteTheLoadedFile() throws Exception {
+        List<Supplier<Storage>> storages = List.of(
+                () -> new MappedStorage(JsonCodec.get().getMapper()),
+                () -> new JournalStorage(new BinaryStorage(JsonCodec.get().getMapper()), JsonCodec.get().getMapper()));
+        for (var newStorage : storages) {
+            for (var factory : CANVASES) {
+                Path dir = folder.newFolder().toPath();
+                String previous = dir.resolve("previous").toString();
+                String loadedFile = dir.resolve("loaded").toString();
+                newStorage.get().save(loadedFile, Fixtures.randomShapes(new Random(23), 40));
+                List<String> loadedContents = sorted(newStorage.get().load(loadedFile));
+
+                Canvas canvas = factory.apply(newStorage.get());
+                Fixtures.randomShapes(new Random(24), 30).forEach(canvas::addShape);
+                canvas.saveToJson(previous);
+                CommandHistory history = new CommandHistory(10);
+                history.execute(new CommandLoad(canvas, Fixtures.writer(), loadedFile));
+
+                history.undo();
+                assertEquals(sorted(newStorage.get().load(previous)), sorted(canvas.getShapes()));
+                assertEquals(loadedContents, sorted(newStorage.get().load(loadedFile)));
+                //lo que se edite ahora va al fichero anterior
+                canvas.moveShape(canvas.getShapes().get(0).getId(), 1, 1);
+                assertEquals(sorted(canvas.getShapes()), sorted(newStorage.get().load(previous)));
+                assertEquals(loadedContents, sorted(newStorage.get().load(loadedFile)));
+                canvas.moveShape(canvas.getShapes().get(0).getId(), -1, -1);
+
+                history.redo();
+                assertEquals(loadedContents, sorted(canvas.getShapes()));
+                canvas.moveShape(canvas.getShapes().get(0).getId(), 1, 1);
+                assertEquals(sorted(canvas.getShapes()), sorted(newStorage.get().load(loadedFile)));
+            }
+        }
+    }
+
+    private interface CommandFactory {
+        UndoableCommand create(Canvas canvas, List<Shape> shapes);
+    }
+
+    private static void check(CommandFactory command) {
+        for (var factory : CANVASES) {
+            Canvas canvas = factory.apply(Fixtures.noStorage());
+            Fixtures.randomShapes(new Random(25), 300).forEach(canvas::addShape);
+            checkOn(canvas, command.create(canvas, canvas.getShapes()));
+        }
+    }
+
+    private static void checkOn(Canvas canvas, UndoableCommand command) {
+        CommandHistory history = new CommandHistory(10);
+        List<String> before = texts(canvas.getShapes());
+        history.execute(command);
+        canvas.awaitPendingIo();
+        List<String> after = texts(canvas.getShapes());
+        for (int i = 0; i < 2; i++) {
+            history.undo();
+            assertEquals(canvas.getClass().getSimpleName(), before, texts(canvas.getShapes()));
+            history.redo();
+            assertEquals(canvas.getClass().getSimpleName(), after, texts(canvas.getShapes()));
+        }
+    }
+
+    private static List<String> texts(List<Shape> shapes) {
+        return shapes.stream().map(Shape::toString).toList();
+    }
+
+    private static List<String> sorted(List<Shape> shapes) {
+        return shapes.stream().map(Shape::toString).sorted().toList();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.paint.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Test;
+
+//El analisis sobre los bytes tiene que dar lo mismo que Double.parseDouble y UUID.fromString
+public class InputReaderStreamTest {
+    private static final String NUMBER_CHARS = "0123456789.+-eE dNaIfinty";
+    private static final String UUID_CHARS = "0123456789abcdefABCDEF-g ";
+
+    @Test
+    public void nextDoubleMatchesParseDouble() {
+        Random random = new Random(40);
+        List<String> entries = new ArrayList<>(List.of(
+                "0", "-0", "+0.0", "1.", ".5", ".", "-", "", " 12 ", "1e", "1e+", "1e-22", "1e22", "1e23",
+                "9007199254740991", "9007199254740993", "123456789012345678901234567890",
+                "0.1", "0.30000000000000004", "1.7976931348623157e308", "4.9e-324", "1e400",
+                "NaN", "-Infinity", "0x1p3", "1d", "2.5f", "1.2.3", "1 2", "--1", "+-1", "00000000000000000000001.5",
+                "é1.5", "2.5é", "\u00a01", "1\u2003", "ñ"));
+        for (int i = 0; i < 20_000; i++) {
+            entries.add(switch (random.nextInt(4)) {
+                case 0 -> Double.toString(Double.longBitsToDouble(random.nextLong()));
+                case 1 -> String.format(Locale.ROOT, "%." + random.nextInt(12) + "f", (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20)));
+                case 2 -> (random.nextInt(2000) - 1000) + "e" + (random.nextInt(60) - 30);
+                default -> randomText(random, NUMBER_CHARS, 1 + random.nextInt(10));
+            });
+        }
+        InputReaderStream reader = reader(entries, random);
+        for (String entry : entries) {
+            double expected;
+            try {
+                expected = Double.parseDouble(entry);
+            } catch (NumberFormatException e) {
+                try {
+                    throw new AssertionError("'" + entry + "' leido como " + reader.nextDouble());
+                } catch (NumberFormatException rejected) {
+                    continue;
+                }
+            }
+            double actual = reader.nextDouble();
+            assertEquals("'" + entry + "'", Double.doubleToLongBits(expected), Double.doubleToLongBits(actual));
+        }
+    }
+
+    @Test
+    public void nextUUIDMatchesFromString() {
+        Random random = new Random(41);
+        List<String> entries = new ArrayList<>(List.of(
+                "1-2-3-4-5", "0-0-0-0-0", "", "-", "00000000-0000-0000-0000-00000000000g",
+                "é123e4567-e89b-12d3-a456-426614174000", "123e4567-e89b-12d3-a456-426614174000é",
+                "\u2003123e4567-e89b-12d3-a456-426614174000", "123e4567-e89b-12d3-a456-42661417400é"));
+        for (int i = 0; i < 20_000; i++) {
+            String canonical = new UUID(random.nextLong(), random.nextLong()).toString();
+            entries.add(switch (random.nextInt(5)) {
+                case 0 -> canonical;
+                case 1 -> " " + canonical.toUpperCase(Locale.ROOT) + "\t";
+                case 2 -> mutate(random, canonical);
+                case 3 -> canonical.substring(random.nextInt(4));
+                default -> randomText(random, UUID_CHARS, 30 + random.nextInt(10));
+            });
+        }
+        InputReaderStream reader = reader(entries, random);
+        for (String entry : entries) {
+            UUID expected;
+            try {
+                expected = UUID.fromString(entry.strip());
+            } catch (IllegalArgumentException e) {
+                try {
+                    throw new AssertionError("'" + entry + "' leido como " + reader.nextUUID());
+                } catch (IllegalArgumentException rejected) {
+                    continue;
+                }
+            }
+            assertEquals("'" + entry + "'", expected, reader.nextUUID());
+        }
+    }
+
+    //lineas repartidas en lecturas de pocos bytes para pasar tambien por el rellenado del buffer
+    private static InputReaderStream reader(List<String> entries, Random random) {
+        byte[] bytes = (String.join("\n", entries) + "\n").getBytes(StandardCharsets.UTF_8);
+        InputStream in = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1 + random.nextInt(64)));
+            }
+        };
+        return new InputReaderStream(in, StandardCharsets.UTF_8);
+    }
+
+    private static String mutate(Random random, String text) {
+        char[] chars = text.toCharArray();
+        chars[random.nextInt(chars.length)] = UUID_CHARS.charAt(random.nextInt(UUID_CHARS.length()));
+        return new String(chars);
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
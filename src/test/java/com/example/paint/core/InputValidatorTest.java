@@ -0,0 +1,72 @@
+package com.example.paint.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Scanner;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.example.paint.Fixtures;
+
+public class InputValidatorTest {
+
+    @Test
+    public void readsCommaSeparatedIds() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        InputReaderTokens reader = new InputReaderTokens();
+        reader.feed(first + ",," + second + ",");
+        assertEquals(List.of(first, second), InputValidator.readUUIDs(Fixtures.writer(), reader, ""));
+    }
+
+    //en modo batch un id mal escrito es un error, no una excepcion de UUID.fromString
+    @Test
+    public void rejectsAnInvalidIdWhenNotInteractive() {
+        InputReaderTokens reader = new InputReaderTokens();
+        String entry = UUID.randomUUID() + ",no-es-un-id";
+        reader.feed(entry);
+        try {
+            InputValidator.readUUIDs(Fixtures.writer(), reader, "");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("El valor introducido no es correcto: " + entry, e.getMessage());
+        }
+    }
+
+    //en modo interactivo se avisa y se vuelve a pedir la lista
+    @Test
+    public void asksAgainForAnInvalidIdWhenInteractive() {
+        UUID id = UUID.randomUUID();
+        InputReader reader = new InputReaderScanner(new Scanner("1234\n" + id + "\n"));
+        Fixtures.RecordingWriter writer = Fixtures.writer();
+        assertEquals(List.of(id), InputValidator.readUUIDs(writer, reader, "ids: "));
+        assertTrue(writer.text().contains("El valor introducido no es correcto"));
+    }
+
+    //un factor de escala cero, negativo o no finito es un error en modo batch
+    @Test
+    public void rejectsANonPositiveDoubleWhenNotInteractive() {
+        for (String entry : List.of("0", "-1.5", "NaN", "Infinity")) {
+            InputReaderTokens reader = new InputReaderTokens();
+            reader.feed(entry);
+            try {
+                InputValidator.readPositiveDouble(Fixtures.writer(), reader, "");
+                fail(entry);
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().startsWith("El valor introducido no es correcto"));
+            }
+        }
+    }
+
+    @Test
+    public void asksAgainForANonPositiveDoubleWhenInteractive() {
+        InputReader reader = new InputReaderScanner(new Scanner("-2\n0\n2.5\n"));
+        Fixtures.RecordingWriter writer = Fixtures.writer();
+        assertEquals(2.5, InputValidator.readPositiveDouble(writer, reader, "factor: "), 0);
+        assertTrue(writer.text().contains("El valor debe ser un número positivo"));
+    }
+}
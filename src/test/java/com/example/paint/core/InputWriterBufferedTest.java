@@ -0,0 +1,38 @@
+package com.example.paint.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class InputWriterBufferedTest {
+    private static final String NL = System.lineSeparator();
+
+    @Test
+    public void linesFromTheOwnerWaitForFlush() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InputWriterBuffered writer = new InputWriterBuffered(Channels.newChannel(out), StandardCharsets.UTF_8);
+        writer.println("uno");
+        writer.printf("%d%n", 2);
+        assertEquals("", out.toString(StandardCharsets.UTF_8));
+        writer.print("> ");
+        assertEquals("uno" + NL + "2" + String.format("%n") + "> ", out.toString(StandardCharsets.UTF_8));
+    }
+
+    //un aviso desde otro hilo (guardado en segundo plano) no espera al siguiente comando
+    @Test
+    public void linesFromOtherThreadsAreWrittenAtOnce() throws InterruptedException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InputWriterBuffered writer = new InputWriterBuffered(Channels.newChannel(out), StandardCharsets.UTF_8);
+        Thread io = new Thread(() -> {
+            writer.println("Guardado");
+            writer.printf("Cargadas %d figuras%n", 3);
+        });
+        io.start();
+        io.join();
+        assertEquals("Guardado" + NL + "Cargadas 3 figuras" + String.format("%n"), out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.paint.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.example.json.JsonCodec;
+import com.example.paint.Fixtures;
+import com.example.paint.shapes.Shape;
+
+public class BinaryStorageTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripKeepsShapesAndOrder() throws Exception {
+        Storage storage = new BinaryStorage(JsonCodec.get().getMapper());
+        List<Shape> shapes = Fixtures.randomShapes(new Random(5), 1000);
+        String file = folder.newFile("shapes.bin").toString();
+
+        storage.save(file, shapes);
+
+        assertEquals(texts(shapes), texts(storage.load(file)));
+    }
+
+    @Test
+    public void roundTripOfEmptyCanvas() throws Exception {
+        Storage storage = new BinaryStorage(JsonCodec.get().getMapper());
+        String file = folder.newFile("empty.bin").toString();
+
+        storage.save(file, List.of());
+
+        assertEquals(List.of(), storage.load(file));
+    }
+
+    @Test
+    public void headerValuesMustFitInAByte() {
+        assertEquals(255, BinaryStorage.unsignedByte(255, "tag"));
+        for (int value : new int[] { 256, -1 }) {
+            try {
+                BinaryStorage.unsignedByte(value, "tag");
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertEquals("tag fuera de rango (0-255): " + value, e.getMessage());
+            }
+        }
+    }
+
+    //toString incluye el tipo, el id y todos los campos de cada figura
+    static List<String> texts(List<Shape> shapes) {
+        return shapes.stream().map(Shape::toString).toList();
+    }
+}
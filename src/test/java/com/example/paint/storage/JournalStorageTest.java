@@ -0,0 +1,289 @@
+package com.example.paint.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.example.json.JsonCodec;
+import com.example.paint.Fixtures;
+import com.example.paint.canvas.Canvas;
+import com.example.paint.canvas.CanvasColumnar;
+import com.example.paint.canvas.CanvasConcurrent;
+import com.example.paint.canvas.CanvasImplementation;
+import com.example.paint.canvas.CanvasIndexed;
+import com.example.paint.shapes.Shape;
+
+public class JournalStorageTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripThroughSnapshotAndJournal() throws Exception {
+        Path file = folder.newFolder().toPath().resolve("shapes.bin");
+        Random random = new Random(9);
+        Canvas canvas = new CanvasImplementation(journal(), Fixtures.writer());
+        Fixtures.randomShapes(random, 300).forEach(canvas::addShape);
+        canvas.saveToJson(file.toString());
+        edit(canvas, random);
+
+        assertTrue(Files.size(journalOf(file)) > 0);
+        assertEquals(sorted(canvas.getShapes()), sorted(journal().load(file.toString())));
+    }
+
+    @Test
+    public void editsAfterLoadAreJournaledOnEveryCanvas() throws Exception {
+        List<Canvas> canvases = List.of(
+                new CanvasImplementation(journal(), Fixtures.writer()),
+                new CanvasIndexed(journal(), Fixtures.writer()),
+                new CanvasColumnar(journal(), Fixtures.writer(), JsonCodec.get().getMapper()),
+                new CanvasConcurrent(journal(), Fixtures.writer()));
+        for (Canvas canvas : canvases) {
+            Path file = folder.newFolder().toPath().resolve("shapes.bin");
+            Random random = new Random(10);
+            journal().save(file.toString(), Fixtures.randomShapes(random, 100));
+
+            canvas.loadFromJsonAsync(file.toString()).join();
+            edit(canvas, random);
+            List<String> edited = sorted(canvas.getShapes());
+
+            canvas.loadFromJsonAsync(file.toString()).join();
+            assertEquals(edited, sorted(canvas.getShapes()));
+            assertEquals(edited, sorted(journal().load(file.toString())));
+        }
+    }
+
+    @Test
+    public void recoveryDropsATornRecordAndKeepsAppending() throws Exception {
+        Path file = folder.newFolder().toPath().resolve("shapes.bin");
+        Random random = new Random(11);
+        var storage = journal();
+        Canvas canvas = new CanvasIndexed(storage, Fixtures.writer());
+        Fixtures.randomShapes(random, 50).forEach(canvas::addShape);
+        canvas.saveToJson(file.toString());
+        edit(canvas, random);
+        List<String> beforeCrash = sorted(canvas.getShapes());
+        storage.attach(null);
+        //el proceso muere a mitad de un ADD: operacion y parte del id
+        Files.write(journalOf(file), new byte[] { 1, 7, 7, 7, 7, 7 }, StandardOpenOption.APPEND);
+
+        var recovered = journal();
+        Canvas restarted = new CanvasIndexed(recovered, Fixtures.writer());
+        restarted.loadFromJson(file.toString());
+        assertEquals(beforeCrash, sorted(restarted.getShapes()));
+
+        edit(restarted, random);
+        assertEquals(sorted(restarted.getShapes()), sorted(journal().load(file.toString())));
+    }
+
+    @Test
+    public void recoveryReplaysAnInterruptedCompaction() throws Exception {
+        Path file = folder.newFolder().toPath().resolve("shapes.bin");
+        Random random = new Random(12);
+        var storage = journal();
+        Canvas canvas = new CanvasIndexed(storage, Fixtures.writer());
+        Fixtures.randomShapes(random, 50).forEach(canvas::addShape);
+        canvas.saveToJson(file.toString());
+        edit(canvas, random);
+        List<String> beforeCrash = sorted(canvas.getShapes());
+        storage.attach(null);
+        //la compactacion movio el journal a .old y murio antes de escribir el snapshot
+        Files.move(journalOf(file), file.resolveSibling(file.getFileName() + ".journal.old"));
+
+        Canvas restarted = new CanvasIndexed(journal(), Fixtures.writer());
+        restarted.loadFromJson(file.toString());
+        assertEquals(beforeCrash, sorted(restarted.getShapes()));
+
+        edit(restarted, random);
+        assertEquals(sorted(restarted.getShapes()), sorted(journal().load(file.toString())));
+    }
+
+    @Test
+    public void backgroundFailureIsReportedByTheNextSave() throws Exception {
+        Path file = folder.newFolder().toPath().resolve("shapes.bin");
+        CountDownLatch failed = new CountDownLatch(1);
+        var binary = new BinaryStorage(JsonCodec.get().getMapper());
+        //la compactacion escribe el snapshot nuevo en <fichero>.tmp
+        AtomicInteger compactions = new AtomicInteger();
+        Storage failing = new FailingStorage(binary, ".tmp", () -> {
+            compactions.incrementAndGet();
+            failed.countDown();
+        });
+        var storage = new JournalStorage(failing, JsonCodec.get().getMapper());
+        Canvas canvas = new CanvasIndexed(storage, Fixtures.writer());
+        Shape shape = Fixtures.randomShape(new Random(13));
+        canvas.addShape(shape);
+        canvas.saveToJson(file.toString());
+        for (int i = 0; i < 60_000; i++) {
+            canvas.moveShape(shape.getId(), 1, 1);
+        }
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+        storage.awaitBackground();
+        //la segunda ya encuentra el .old y no abre un journal nuevo; tras fallar se vuelve a contar
+        //desde cero y los registros siguientes no lanzan una compactacion cada uno
+        for (int i = 0; i < 50_000; i++) {
+            canvas.moveShape(shape.getId(), 1, 1);
+        }
+        storage.awaitBackground();
+        for (int i = 0; i < 10_000; i++) {
+            canvas.moveShape(shape.getId(), 1, 1);
+        }
+        storage.awaitBackground();
+        assertEquals(2, compactions.get());
+        try {
+            storage.save(file.toString(), canvas.getShapes());
+            fail("El fallo de la compactacion no se notifico");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("disco lleno"));
+        }
+        //el guardado que lo notifica se completo, y el siguiente ya no falla
+        storage.save(file.toString(), canvas.getShapes());
+        assertEquals(sorted(canvas.getShapes()), sorted(journal().load(file.toString())));
+    }
+
+    //el proceso muere a mitad del guardado: el fichero anterior y su journal siguen valiendo
+    @Test
+    public void interruptedSaveKeepsThePreviousSnapshotAndJournal() throws Exception {
+        Path file = folder.newFolder().toPath().resolve("shapes.bin");
+        Random random = new Random(14);
+        var binary = new BinaryStorage(JsonCodec.get().getMapper());
+        var storage = new JournalStorage(new FailingStorage(binary, ".saving", () -> {
+        }), JsonCodec.get().getMapper());
+        Canvas canvas = new CanvasIndexed(journal(), Fixtures.writer());
+        Fixtures.randomShapes(random, 50).forEach(canvas::addShape);
+        canvas.saveToJson(file.toString());
+
+        canvas = new CanvasIndexed(storage, Fixtures.writer());
+        canvas.loadFromJson(file.toString());
+        edit(canvas, random);
+        List<String> beforeSave = sorted(canvas.getShapes());
+        try {
+            canvas.saveToJson(file.toString());
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("disco lleno"));
+        }
+        assertEquals(beforeSave, sorted(journal().load(file.toString())));
+
+        //el journal sigue adjunto tras el fallo
+        edit(canvas, random);
+        assertEquals(sorted(canvas.getShapes()), sorted(journal().load(file.toString())));
+    }
+
+    //una compactacion que falla despues de que otro guardado la dejara obsoleta no se notifica
+    @Test
+    public void staleCompactionFailureIsIgnored() throws Exception {
+        Path file = folder.newFolder().toPath().resolve("shapes.bin");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger compactions = new AtomicInteger();
+        var binary = new BinaryStorage(JsonCodec.get().getMapper());
+        var storage = new JournalStorage(new FailingStorage(binary, ".tmp", () -> {
+            compactions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }), JsonCodec.get().getMapper());
+        Canvas canvas = new CanvasIndexed(storage, Fixtures.writer());
+        Shape shape = Fixtures.randomShape(new Random(15));
+        canvas.addShape(shape);
+        canvas.saveToJson(file.toString());
+        for (int i = 0; i < 50_000; i++) {
+            canvas.moveShape(shape.getId(), 1, 1);
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        //el guardado cambia de generacion mientras la compactacion esta en curso
+        canvas.saveToJson(file.toString());
+        release.countDown();
+        for (int i = 0; i < 40_000; i++) {
+            canvas.moveShape(shape.getId(), 1, 1);
+        }
+        storage.awaitBackground();
+        canvas.saveToJson(file.toString());
+        assertEquals(1, compactions.get());
+        assertEquals(sorted(canvas.getShapes()), sorted(journal().load(file.toString())));
+    }
+
+    //Falla al escribir un fichero con ese sufijo despues de dejarlo a medias
+    private static final class FailingStorage implements Storage {
+        private final Storage target;
+        private final String suffix;
+        private final Runnable beforeFailing;
+
+        FailingStorage(Storage target, String suffix, Runnable beforeFailing) {
+            this.target = target;
+            this.suffix = suffix;
+            this.beforeFailing = beforeFailing;
+        }
+
+        @Override
+        public void save(String filename, List<Shape> shapes) {
+            saveEach(filename, shapes);
+        }
+
+        @Override
+        public void saveEach(String filename, Iterable<Shape> shapes) {
+            if (filename.endsWith(suffix)) {
+                try {
+                    Files.write(Path.of(filename), new byte[] { 0x53, 0x48 });
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                beforeFailing.run();
+                throw new RuntimeException("disco lleno");
+            }
+            target.saveEach(filename, shapes);
+        }
+
+        @Override
+        public List<Shape> load(String filename) {
+            return target.load(filename);
+        }
+
+        @Override
+        public void loadEach(String filename, Consumer<Shape> consumer) {
+            target.loadEach(filename, consumer);
+        }
+    }
+
+    private static JournalStorage journal() {
+        return new JournalStorage(new BinaryStorage(JsonCodec.get().getMapper()), JsonCodec.get().getMapper());
+    }
+
+    private static Path journalOf(Path file) {
+        return file.resolveSibling(file.getFileName() + ".journal");
+    }
+
+    private static void edit(Canvas canvas, Random random) {
+        List<Shape> shapes = canvas.getShapes();
+        Fixtures.randomShapes(random, 20).forEach(canvas::addShape);
+        canvas.moveShape(shapes.get(0).getId(), 5, -5);
+        canvas.removeShape(shapes.get(1).getId());
+        canvas.scaleShapes(shape -> shape.getId().equals(shapes.get(2).getId()), 2);
+    }
+
+    private static List<String> sorted(List<Shape> shapes) {
+        return shapes.stream()
+                     .sorted(Comparator.comparing(Shape::getId))
+                     .map(Shape::toString)
+                     .toList();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.paint.storage;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.example.json.JsonCodec;
+import com.example.paint.Fixtures;
+import com.example.paint.canvas.Canvas;
+import com.example.paint.canvas.CanvasColumnar;
+import com.example.paint.canvas.CanvasConcurrent;
+import com.example.paint.canvas.CanvasImplementation;
+import com.example.paint.canvas.CanvasIndexed;
+import com.example.paint.shapes.Shape;
+
+public class MappedStorageTest {
+    private static final List<Function<Storage, Canvas>> CANVASES = List.of(
+            storage -> new CanvasImplementation(storage, Fixtures.writer()),
+            storage -> new CanvasIndexed(storage, Fixtures.writer()),
+            storage -> new CanvasColumnar(storage, Fixtures.writer(), JsonCodec.get().getMapper()),
+            storage -> new CanvasConcurrent(storage, Fixtures.writer()));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripKeepsShapes() throws Exception {
+        List<Shape> shapes = Fixtures.randomShapes(new Random(6), 1000);
+        String file = folder.newFolder().toPath().resolve("shapes.map").toString();
+
+        new MappedStorage(JsonCodec.get().getMapper()).save(file, shapes);
+
+        assertEquals(sorted(shapes), sorted(new MappedStorage(JsonCodec.get().getMapper()).load(file)));
+    }
+
+    @Test
+    public void editsAfterLoadAreInTheLoadedFile() throws Exception {
+        for (var factory : CANVASES) {
+            String file = folder.newFolder().toPath().resolve("shapes.map").toString();
+            Random random = new Random(7);
+            Canvas writer = factory.apply(new MappedStorage(JsonCodec.get().getMapper()));
+            Fixtures.randomShapes(random, 200).forEach(writer::addShape);
+            writer.saveToJson(file);
+
+            var storage = new MappedStorage(JsonCodec.get().getMapper());
+            Canvas canvas = factory.apply(storage);
+            canvas.loadFromJsonAsync(file).join();
+            edit(canvas, random);
+            List<String> edited = sorted(canvas.getShapes());
+
+            canvas.loadFromJsonAsync(file).join();
+            assertEquals(edited, sorted(canvas.getShapes()));
+            assertEquals(edited, sorted(new MappedStorage(JsonCodec.get().getMapper()).load(file)));
+            assertEquals(Path.of(file).toAbsolutePath().toString(), storage.attached());
+        }
+    }
+
+    @Test
+    public void loadingAnotherFileDetachesThePreviousOne() throws Exception {
+        for (var factory : CANVASES) {
+            var dir = folder.newFolder().toPath();
+            String first = dir.resolve("first.map").toString();
+            String second = dir.resolve("second.map").toString();
+            Random random = new Random(8);
+            new MappedStorage(JsonCodec.get().getMapper()).save(first, Fixtures.randomShapes(random, 50));
+            new MappedStorage(JsonCodec.get().getMapper()).save(second, Fixtures.randomShapes(random, 80));
+            Canvas canvas = factory.apply(new MappedStorage(JsonCodec.get().getMapper()));
+            canvas.loadFromJsonAsync(second).join();
+            List<String> secondContents = sorted(canvas.getShapes());
+
+            canvas.loadFromJsonAsync(first).join();
+            edit(canvas, random);
+
+            assertEquals(sorted(canvas.getShapes()), sorted(new MappedStorage(JsonCodec.get().getMapper()).load(first)));
+            assertEquals(secondContents, sorted(new MappedStorage(JsonCodec.get().getMapper()).load(second)));
+            assertEquals(80, secondContents.size());
+        }
+    }
+
+    private static void edit(Canvas canvas, Random random) {
+        List<Shape> shapes = canvas.getShapes();
+        Fixtures.randomShapes(random, 20).forEach(canvas::addShape);
+        canvas.moveShape(shapes.get(0).getId(), 5, -5);
+        canvas.removeShape(shapes.get(1).getId());
+        canvas.scaleShapes(shape -> shape.getId().equals(shapes.get(2).getId()), 2);
+    }
+
+    //El fichero mapeado reutiliza slots libres, asi que se compara sin tener en cuenta el orden
+    private static List<String> sorted(List<Shape> shapes) {
+        return shapes.stream()
+                     .sorted(Comparator.comparing(Shape::getId))
+                     .map(Shape::toString)
+                     .toList();
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.solid.segregation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class CachingGetTest {
+
+    //Backend en memoria que cuenta las llamadas; la primera puede quedarse esperando a release.
+    //Con failure, cada llamada lanza ese error (despues de esperar, si es la primera)
+    private static final class SlowBackend implements Get<String, Integer> {
+        final Map<Integer, String> values = new ConcurrentHashMap<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean blockFirst;
+        volatile Error failure;
+
+        @Override
+        public String get(Integer id) {
+            String value = values.get(id);
+            if (calls.incrementAndGet() == 1 && blockFirst) {
+                firstStarted.countDown();
+                await(release);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return value;
+        }
+    }
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void hitsDoNotCallTheBackend() {
+        SlowBackend backend = new SlowBackend();
+        backend.values.put(1, "uno");
+        CachingGet<String, Integer> cache = new CachingGet<>(backend, 10, Duration.ofMinutes(1));
+        assertEquals("uno", cache.get(1));
+        assertEquals("uno", cache.get(1));
+        assertEquals(null, cache.get(2));
+        assertEquals(null, cache.get(2));
+        assertEquals(3, backend.calls.get());
+        assertEquals(new CachingGet.CacheStats(1, 3, 3, 0), cache.stats());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsed() {
+        SlowBackend backend = new SlowBackend();
+        for (int id = 0; id < 3; id++) {
+            backend.values.put(id, "v" + id);
+        }
+        CachingGet<String, Integer> cache = new CachingGet<>(backend, 2, Duration.ofMinutes(1));
+        cache.get(0);
+        cache.get(1);
+        cache.get(0);
+        cache.get(2);
+        int before = backend.calls.get();
+        cache.get(0);
+        cache.get(2);
+        assertEquals(before, backend.calls.get());
+        cache.get(1);
+        assertEquals(before + 1, backend.calls.get());
+    }
+
+    @Test
+    public void concurrentMissesShareOneLoad() throws Exception {
+        SlowBackend backend = new SlowBackend();
+        backend.values.put(1, "uno");
+        backend.blockFirst = true;
+        CachingGet<String, Integer> cache = new CachingGet<>(backend, 10, Duration.ofMinutes(1));
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> cache.get(1)));
+        await(backend.firstStarted);
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> cache.get(1)));
+        }
+        //los demas tienen que estar esperando la carga, no llamando al backend
+        Thread.sleep(100);
+        backend.release.countDown();
+        for (Future<String> result : results) {
+            assertEquals("uno", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, backend.calls.get());
+        assertEquals(1, cache.stats().loads());
+    }
+
+    //una carga que empezo antes de la escritura no deja el valor viejo en la cache
+    @Test
+    public void loadStartedBeforeAnInvalidationIsNotCached() throws Exception {
+        SlowBackend backend = new SlowBackend();
+        backend.values.put(1, "viejo");
+        backend.blockFirst = true;
+        CachingGet<String, Integer> cache = new CachingGet<>(backend, 10, Duration.ofMinutes(1));
+        Future<String> early = executor.submit(() -> cache.get(1));
+        await(backend.firstStarted);
+
+        backend.values.put(1, "nuevo");
+        cache.invalidate(1);
+        backend.release.countDown();
+
+        assertEquals("viejo", early.get(5, TimeUnit.SECONDS));
+        assertEquals("nuevo", cache.get(1));
+        assertEquals("nuevo", cache.get(1));
+    }
+
+    //quien llega despues de la invalidacion no se une a la carga anterior
+    @Test
+    public void callersAfterAnInvalidationDoNotJoinTheOlderLoad() throws Exception {
+        SlowBackend backend = new SlowBackend();
+        backend.values.put(1, "viejo");
+        backend.blockFirst = true;
+        CachingGet<String, Integer> cache = new CachingGet<>(backend, 10, Duration.ofMinutes(1));
+        Future<String> early = executor.submit(() -> cache.get(1));
+        await(backend.firstStarted);
+
+        backend.values.put(1, "nuevo");
+        cache.invalidate(1);
+        Future<String> late = executor.submit(() -> cache.get(1));
+        assertEquals("nuevo", late.get(5, TimeUnit.SECONDS));
+        assertTrue(!early.isDone());
+
+        backend.release.countDown();
+        assertEquals("viejo", early.get(5, TimeUnit.SECONDS));
+        assertEquals("nuevo", cache.get(1));
+        assertEquals(2, backend.calls.get());
+    }
+
+    //invalidar otro id no afecta a la carga en curso: se comparte y se guarda
+    @Test
+    public void invalidatingAnotherIdKeepsTheLoad() throws Exception {
+        SlowBackend backend = new SlowBackend();
+        backend.values.put(1, "uno");
+        backend.blockFirst = true;
+        CachingGet<String, Integer> cache = new CachingGet<>(backend, 10, Duration.ofMinutes(1));
+        Future<String> early = executor.submit(() -> cache.get(1));
+        await(backend.firstStarted);
+
+        cache.invalidate(2);
+        Future<String> late = executor.submit(() -> cache.get(1));
+        Thread.sleep(100);
+        backend.release.countDown();
+
+        assertEquals("uno", early.get(5, TimeUnit.SECONDS));
+        assertEquals("uno", late.get(5, TimeUnit.SECONDS));
+        assertEquals("uno", cache.get(1));
+        assertEquals(1, backend.calls.get());
+    }
+
+    //un Error del backend llega tambien a los que esperaban la carga, en lugar de dejarlos bloqueados
+    @Test
+    public void backendErrorReachesTheWaiters() throws Exception {
+        SlowBackend backend = new SlowBackend();
+        backend.values.put(1, "uno");
+        backend.blockFirst = true;
+        backend.failure = new Error("fallo del backend");
+        CachingGet<String, Integer> cache = new CachingGet<>(backend, 10, Duration.ofMinutes(1));
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> cache.get(1)));
+        await(backend.firstStarted);
+        results.add(executor.submit(() -> cache.get(1)));
+        Thread.sleep(100);
+        backend.release.countDown();
+
+        for (Future<String> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertSame(backend.failure, e.getCause());
+            }
+        }
+        backend.failure = null;
+        assertEquals("uno", cache.get(1));
+    }
+
+    @Test
+    public void repositoryWritesInvalidate() {
+        Map<Integer, String> rows = new ConcurrentHashMap<>();
+        Repository<String, Integer> backend = new Repository<>() {
+            @Override
+            public String get(Integer id) {
+                return rows.get(id);
+            }
+
+            @Override
+            public void add(String entity) {
+                rows.put(entity.length(), entity);
+            }
+
+            @Override
+            public void update(String entity) {
+                rows.put(entity.length(), entity);
+            }
+
+            @Override
+            public void remove(String entity) {
+                rows.remove(entity.length());
+            }
+        };
+        CachingRepository<String, Integer> cache = new CachingRepository<>(backend, String::length, 10, Duration.ofMinutes(1));
+        cache.add("abc");
+        assertEquals("abc", cache.get(3));
+        cache.update("xyz");
+        assertEquals("xyz", cache.get(3));
+        cache.remove("xyz");
+        assertEquals(null, cache.get(3));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new AssertionError("Tiempo de espera agotado");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.solid.segregation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.example.core.EntityBase;
+import com.example.domain.Ingredient;
+import com.example.domain.Pizza;
+
+public class InMemoryRepositoryTest {
+
+    private static final class Item extends EntityBase {
+        final String group;
+        final double value;
+
+        Item(UUID id, String group, double value) {
+            super(id);
+            this.group = group;
+            this.value = value;
+        }
+
+        Item() {
+            super();
+            this.group = "";
+            this.value = 0;
+        }
+    }
+
+    //altas, cambios y bajas al azar: los indices devuelven lo mismo que recorrer todas las entidades
+    @Test
+    public void indexesMatchAFullScan() {
+        Random random = new Random(50);
+        InMemoryRepository<Item> repository = new InMemoryRepository<Item>().index("grupo", item -> item.group);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            if (i == 300) {
+                repository.rangeIndex("valor", item -> item.value);
+            }
+            int op = random.nextInt(10);
+            if (ids.isEmpty() || op < 4) {
+                Item item = randomItem(random, UUID.randomUUID());
+                repository.add(item);
+                ids.add(item.getId());
+            } else if (op < 8) {
+                repository.update(randomItem(random, ids.get(random.nextInt(ids.size()))));
+            } else {
+                UUID id = ids.remove(random.nextInt(ids.size()));
+                repository.remove(repository.get(id));
+                assertNull(repository.get(id));
+            }
+            if (i % 500 == 499) {
+                assertConsistent(repository, random);
+            }
+        }
+        assertEquals(ids.size(), repository.size());
+    }
+
+    @Test
+    public void addAllRejectsARepeatedIdInTheSameBatch() {
+        InMemoryRepository<Item> repository = new InMemoryRepository<Item>().index("grupo", item -> item.group);
+        UUID id = UUID.randomUUID();
+        try {
+            repository.addAll(List.of(new Item(UUID.randomUUID(), "a", 1), new Item(id, "a", 1), new Item(id, "b", 2)));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(0, repository.size());
+            assertEquals(List.of(), repository.findBy("grupo", "a"));
+        }
+    }
+
+    @Test
+    public void entityWithoutIdIsRejected() {
+        InMemoryRepository<Item> repository = new InMemoryRepository<>();
+        for (Runnable write : List.<Runnable>of(
+                () -> repository.add(new Item()),
+                () -> repository.update(new Item()),
+                () -> repository.remove(new Item()),
+                () -> repository.get(null))) {
+            try {
+                write.run();
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertEquals(0, repository.size());
+            }
+        }
+    }
+
+    //el precio cambia con el coste de un ingrediente sin llamar a update
+    @Test
+    public void priceIndexFollowsIngredientCost() {
+        Ingredient cheese = Ingredient.create(UUID.randomUUID(), "queso", 1);
+        Ingredient tomato = Ingredient.create(UUID.randomUUID(), "tomate", 1);
+        Pizza cheap = Pizza.create(UUID.randomUUID(), "tomate", "", "", Set.of(tomato));
+        Pizza rich = Pizza.create(UUID.randomUUID(), "queso", "", "", Set.of(cheese));
+        InMemoryRepository<Pizza> repository = new InMemoryRepository<Pizza>().rangeIndex("precio", Pizza::getPrice);
+        repository.addAll(List.of(cheap, rich));
+        assertEquals(2, repository.findInRange("precio", 0, 2).size());
+
+        cheese.update("queso", 10);
+        assertEquals(List.of(cheap), repository.findInRange("precio", 0, 2));
+        assertEquals(List.of(rich), repository.findInRange("precio", 11, 13));
+
+        rich.removeIngredient(cheese);
+        rich.addIngedient(tomato);
+        assertEquals(2, repository.findInRange("precio", 0, 2).size());
+
+        //una vez fuera del repositorio ya no se reindexa
+        repository.remove(rich);
+        tomato.update("tomate", 5);
+        assertEquals(List.of(cheap), repository.findInRange("precio", 5, 7));
+    }
+
+    private static Item randomItem(Random random, UUID id) {
+        return new Item(id, "g" + random.nextInt(20), random.nextInt(1000) / 10.0);
+    }
+
+    private static void assertConsistent(InMemoryRepository<Item> repository, Random random) {
+        List<Item> all = repository.findAll();
+        String group = "g" + random.nextInt(20);
+        assertEquals(ids(all.stream().filter(item -> item.group.equals(group)).toList()),
+                ids(repository.findBy("grupo", group)));
+        double from = random.nextInt(1000) / 10.0;
+        double to = from + random.nextInt(300) / 10.0;
+        assertEquals(ids(all.stream().filter(item -> item.value >= from && item.value <= to).toList()),
+                ids(repository.findInRange("valor", from, to)));
+    }
+
+    private static List<UUID> ids(List<Item> items) {
+        return items.stream().map(EntityBase::getId).sorted(Comparator.naturalOrder()).toList();
+    }
+}